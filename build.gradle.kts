@@ -38,6 +38,11 @@ dependencies {
 	implementation("org.apache.pdfbox:pdfbox:2.0.29")
 	implementation("org.springframework.boot:spring-boot-starter-data-redis")
 	implementation("org.apache.commons:commons-pool2")
+	implementation("com.github.ben-manes.caffeine:caffeine")
+	implementation("org.apache.lucene:lucene-core:9.10.0")
+	implementation("org.apache.lucene:lucene-analysis-common:9.10.0")
+	implementation("org.apache.lucene:lucene-queryparser:9.10.0")
+	implementation("org.apache.lucene:lucene-highlighter:9.10.0")
 	developmentOnly("org.springframework.boot:spring-boot-devtools")
 	runtimeOnly("com.mysql:mysql-connector-j")
 	testImplementation("org.springframework.boot:spring-boot-starter-test")
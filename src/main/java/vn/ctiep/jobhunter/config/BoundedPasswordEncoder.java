@@ -0,0 +1,122 @@
+package vn.ctiep.jobhunter.config;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import vn.ctiep.jobhunter.util.error.ServiceBusyException;
+
+/**
+ * Chay BCrypt tren mot pool rieng co gioi han.
+ *
+ * So thread bam mat khau va do dai hang doi co dinh: khi dang nhap dot bien chi
+ * toi da threads + queue-capacity request dang cho, request khac bi tu choi ngay
+ * (ServiceBusyException -> 503) thay vi chiem het thread Tomcat cua cac API khac.
+ * Metrics: auth.password.hash, auth.password.queue.wait, auth.password.queue.size,
+ * auth.password.active, auth.password.rejected.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+    private static final Logger logger = LoggerFactory.getLogger(BoundedPasswordEncoder.class);
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMs;
+
+    private final Timer hashTimer;
+    private final Timer queueWait;
+    private final Counter rejected;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, long timeoutMs,
+            MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.timeoutMs = timeoutMs;
+        AtomicInteger index = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + index.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+
+        meterRegistry.gauge("auth.password.queue.size", this.executor, e -> e.getQueue().size());
+        meterRegistry.gauge("auth.password.active", this.executor, ThreadPoolExecutor::getActiveCount);
+        this.hashTimer = Timer.builder("auth.password.hash").description("Password hash/verify latency")
+                .register(meterRegistry);
+        this.queueWait = Timer.builder("auth.password.queue.wait").description("Time spent waiting for a hash thread")
+                .register(meterRegistry);
+        this.rejected = meterRegistry.counter("auth.password.rejected");
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return this.run(() -> this.delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return this.run(() -> this.delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return this.delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T run(Supplier<T> task) {
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = this.executor.submit(() -> {
+                long start = System.nanoTime();
+                this.queueWait.record(start - submittedAt, TimeUnit.NANOSECONDS);
+                try {
+                    return task.get();
+                } finally {
+                    this.hashTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            this.rejected.increment();
+            logger.warn("Password hash queue full ({} waiting), rejecting request", this.executor.getQueue().size());
+            throw new ServiceBusyException("Hệ thống đang bận, vui lòng thử lại sau.");
+        }
+
+        try {
+            return future.get(this.timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            this.rejected.increment();
+            throw new ServiceBusyException("Hệ thống đang bận, vui lòng thử lại sau.");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ServiceBusyException("Hệ thống đang bận, vui lòng thử lại sau.");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    // Spring goi khi dong context (destroy method suy ra tu ten shutdown)
+    public void shutdown() {
+        this.executor.shutdownNow();
+    }
+}
@@ -0,0 +1,128 @@
+package vn.ctiep.jobhunter.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.TaskScheduler;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+
+/**
+ * Cache cho cac API GET cong khai (job, company, skill).
+ */
+@Configuration
+public class CacheConfig {
+    public static final String JOB_DETAIL = "jobDetail";
+    public static final String JOB_LIST = "jobList";
+    public static final String COMPANY_DETAIL = "companyDetail";
+    public static final String SKILL_LIST = "skillList";
+    public static final String RESOURCE_VERSION = "resourceVersion";
+
+    public static final String INVALIDATION_CHANNEL = "cache:invalidate";
+
+    @Value("${ctiep.cache.l1-max-size:2000}")
+    private long l1MaxSize;
+
+    @Value("${ctiep.cache.l1-ttl-seconds:60}")
+    private long l1TtlSeconds;
+
+    @Value("${ctiep.cache.l2-ttl-seconds:600}")
+    private long l2TtlSeconds;
+
+    @Value("${ctiep.cache.second-evict-delay-ms:2000}")
+    private long secondEvictDelayMs;
+
+    @Bean
+    public CacheManager cacheManager(RedisTemplate<String, Object> redisTemplate, TaskScheduler taskScheduler) {
+        List<TwoLevelCache> caches = new ArrayList<>();
+        for (String name : List.of(JOB_DETAIL, JOB_LIST, COMPANY_DETAIL, SKILL_LIST, RESOURCE_VERSION)) {
+            caches.add(new TwoLevelCache(name,
+                    Caffeine.newBuilder()
+                            .maximumSize(this.l1MaxSize)
+                            .expireAfterWrite(Duration.ofSeconds(this.l1TtlSeconds))
+                            .build(),
+                    redisTemplate, Duration.ofSeconds(this.l2TtlSeconds), INVALIDATION_CHANNEL, taskScheduler,
+                    Duration.ofMillis(this.secondEvictDelayMs)));
+        }
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(caches);
+        return cacheManager;
+    }
+
+    // Nhan thong bao "<cache>|<key>" tu node khac va xoa L1 tuong ung
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory factory,
+            RedisTemplate<String, Object> redisTemplate, CacheManager cacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(factory);
+        container.addMessageListener((message, pattern) -> {
+            Object body = redisTemplate.getValueSerializer().deserialize(message.getBody());
+            if (body == null) {
+                return;
+            }
+            String[] parts = body.toString().split("\\|", 2);
+            if (parts.length == 2 && cacheManager.getCache(parts[0]) instanceof TwoLevelCache cache) {
+                if (TwoLevelCache.CLEAR_ALL.equals(parts[1])) {
+                    cache.clearLocal();
+                } else {
+                    cache.evictLocal(parts[1]);
+                }
+            }
+        }, new ChannelTopic(INVALIDATION_CHANNEL));
+        return container;
+    }
+
+    // Xuat cache.gets/puts/evictions + so lan trung L2 ra actuator
+    @Bean
+    public CacheMeterBinderProvider<TwoLevelCache> twoLevelCacheMeterBinderProvider() {
+        return (cache, tags) -> new CacheMeterBinder<>(cache, cache.getName(), tags) {
+            @Override
+            protected Long size() {
+                return cache.getL1Size();
+            }
+
+            @Override
+            protected long hitCount() {
+                return cache.getHits();
+            }
+
+            @Override
+            protected Long missCount() {
+                return cache.getMisses();
+            }
+
+            @Override
+            protected Long evictionCount() {
+                return cache.getEvictions();
+            }
+
+            @Override
+            protected long putCount() {
+                return cache.getPuts();
+            }
+
+            @Override
+            protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+                FunctionCounter.builder("cache.l2.hits", cache, TwoLevelCache::getL2Hits)
+                        .tags(getTagsWithCacheName())
+                        .description("Lookups answered by the shared Redis tier")
+                        .register(registry);
+            }
+        };
+    }
+}
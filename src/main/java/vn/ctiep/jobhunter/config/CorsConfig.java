@@ -17,7 +17,7 @@ public class CorsConfig {
                 config.setAllowedOriginPatterns(List.of("http://localhost:5173"));
                 config.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
                 config.setAllowedHeaders(List.of("*"));
-                config.setExposedHeaders(List.of("Set-Cookie"));
+                config.setExposedHeaders(List.of("Set-Cookie", "ETag", "Last-Modified"));
                 config.setAllowCredentials(true);
                 config.setMaxAge(3600L);
 
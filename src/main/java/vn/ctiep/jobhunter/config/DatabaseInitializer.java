@@ -6,10 +6,12 @@ import java.util.List;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import vn.ctiep.jobhunter.domain.Permission;
 import vn.ctiep.jobhunter.domain.Role;
 import vn.ctiep.jobhunter.domain.User;
+import vn.ctiep.jobhunter.repository.JobRepository;
 import vn.ctiep.jobhunter.repository.PermissionRepository;
 import vn.ctiep.jobhunter.repository.RoleRepository;
 import vn.ctiep.jobhunter.repository.UserRepository;
@@ -22,16 +24,22 @@ public class DatabaseInitializer implements CommandLineRunner {
     private final RoleRepository roleRepository;
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final JobRepository jobRepository;
+    private final TransactionTemplate transactionTemplate;
 
     public DatabaseInitializer(
             PermissionRepository permissionRepository,
             RoleRepository roleRepository,
             UserRepository userRepository,
-            PasswordEncoder passwordEncoder) {
+            PasswordEncoder passwordEncoder,
+            JobRepository jobRepository,
+            TransactionTemplate transactionTemplate) {
         this.permissionRepository = permissionRepository;
         this.roleRepository = roleRepository;
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.jobRepository = jobRepository;
+        this.transactionTemplate = transactionTemplate;
     }
 
     @Override
@@ -120,6 +128,13 @@ public class DatabaseInitializer implements CommandLineRunner {
             this.userRepository.save(adminUser);
         }
 
+        // hired_count: du lieu cu (truoc khi co cot) dang la 0, nang bang so resume HIRED
+        // truoc khi reserveHire dua vao no
+        Integer reconciled = this.transactionTemplate.execute(status -> this.jobRepository.reconcileHiredCounts());
+        if (reconciled != null && reconciled > 0) {
+            System.out.println(">>> BACKFILL hired_count FOR " + reconciled + " JOBS");
+        }
+
         if (countPermissions > 0 && countRoles > 0 && countUsers > 0) {
             System.out.println(">>> SKIP INIT DATABASE ~ ALREADY HAVE DATA...");
         } else
@@ -1,61 +1,40 @@
 package vn.ctiep.jobhunter.config;
 
-import java.util.List;
+import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.servlet.HandlerInterceptor;
 import org.springframework.web.servlet.HandlerMapping;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import vn.ctiep.jobhunter.domain.Permission;
-import vn.ctiep.jobhunter.domain.Role;
-import vn.ctiep.jobhunter.domain.User;
-import vn.ctiep.jobhunter.service.UserService;
+import vn.ctiep.jobhunter.domain.response.ResLoginDTO;
+import vn.ctiep.jobhunter.service.PermissionMatrixService;
 import vn.ctiep.jobhunter.util.SecurityUtil;
 import vn.ctiep.jobhunter.util.error.PermissionException;
 
 public class PermissionInterceptor implements HandlerInterceptor {
 
     @Autowired
-    UserService userService;
+    PermissionMatrixService permissionMatrixService;
 
     @Override
-    @Transactional
     public boolean preHandle(
             HttpServletRequest request,
             HttpServletResponse response, Object handler)
             throws Exception {
 
         String path = (String) request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
-        String requestURI = request.getRequestURI();
         String httpMethod = request.getMethod();
-        System.out.println(">>> RUN preHandle");
-        System.out.println(">>> path= " + path);
-        System.out.println(">>> httpMethod= " + httpMethod);
-        System.out.println(">>> requestURI= " + requestURI);
 
         // check permission
-        String email = SecurityUtil.getCurrentUserLogin().isPresent() == true
-                ? SecurityUtil.getCurrentUserLogin().get()
-                : "";
-        if (email != null && !email.isEmpty()) {
-            User user = this.userService.handleGetUserByUsername(email);
-            if (user != null) {
-                Role role = user.getRole();
-                if (role != null) {
-                    List<Permission> permissions = role.getPermissions();
-                    boolean isAllow = permissions.stream().anyMatch(item -> item.getApiPath().equals(path)
-                            && item.getMethod().equals(httpMethod));
-                    System.out.println(">>> isAllow: " + isAllow);
-                    if (isAllow == false) {
-                        throw new PermissionException("Bạn không có quyền truy cập endpoint này.");
-                    }
-                } else {
-                    throw new PermissionException("Bạn không có quyền truy cập endpoint này.");
-                }
-            }
+        Optional<ResLoginDTO.UserInsideToken> tokenUser = SecurityUtil.getCurrentUserInsideToken();
+        if (tokenUser.isEmpty()) {
+            return true;
+        }
+        // role lay o server theo user id, khong tin role trong token (token song lau)
+        if (!this.permissionMatrixService.isAllowedForUser(tokenUser.get().getId(), httpMethod, path)) {
+            throw new PermissionException("Bạn không có quyền truy cập endpoint này.");
         }
 
         return true;
@@ -0,0 +1,86 @@
+package vn.ctiep.jobhunter.config;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.aop.framework.autoproxy.AbstractBeanFactoryAwareAdvisingPostProcessor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+
+import vn.ctiep.jobhunter.service.SchedulerLockService;
+import vn.ctiep.jobhunter.util.annotation.SchedulerLock;
+
+/**
+ * Boc cac method @SchedulerLock bang SchedulerLockService (giong cach @Async duoc xu ly).
+ *
+ * Advisor dung truoc cac advisor san co (vd. @Transactional) nen transaction cua job
+ * commit xong moi tra lock; chay truoc ScheduledAnnotationBeanPostProcessor nen lich
+ * @Scheduled goi qua proxy co lock.
+ */
+@Component
+public class SchedulerLockBeanPostProcessor extends AbstractBeanFactoryAwareAdvisingPostProcessor {
+    private static final Logger logger = LoggerFactory.getLogger(SchedulerLockBeanPostProcessor.class);
+
+    public SchedulerLockBeanPostProcessor(ObjectProvider<SchedulerLockService> schedulerLockService) {
+        // service lay luc goi: BeanPostProcessor khong nen khoi tao som cac bean khac
+        this.advisor = new DefaultPointcutAdvisor(
+                AnnotationMatchingPointcut.forMethodAnnotation(SchedulerLock.class),
+                new LockInterceptor(schedulerLockService));
+        this.setBeforeExistingAdvisors(true);
+        this.setOrder(Ordered.LOWEST_PRECEDENCE - 1);
+    }
+
+    private static class LockInterceptor implements MethodInterceptor {
+        private final ObjectProvider<SchedulerLockService> schedulerLockService;
+
+        LockInterceptor(ObjectProvider<SchedulerLockService> schedulerLockService) {
+            this.schedulerLockService = schedulerLockService;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            Method method = invocation.getMethod();
+            SchedulerLock lock = AnnotatedElementUtils.findMergedAnnotation(method, SchedulerLock.class);
+            if (lock == null) {
+                return invocation.proceed();
+            }
+            SchedulerLockService service = this.schedulerLockService.getObject();
+            Duration lease = Duration.ofSeconds(lock.leaseSeconds());
+            Duration minLease = Duration.ofSeconds(lock.minLeaseSeconds());
+            int partitions = Math.max(1, lock.partitions());
+
+            // moi node bat dau tu mot phan ngau nhien de cac node chia deu viec
+            int first = partitions == 1 ? 0 : ThreadLocalRandom.current().nextInt(partitions);
+            Object result = null;
+            int ran = 0;
+            for (int i = 0; i < partitions; i++) {
+                int partition = (first + i) % partitions;
+                String name = partitions == 1 ? lock.name() : lock.name() + ":" + partition;
+                SchedulerLockService.Lease held = service.tryAcquire(name, lease, minLease, partition, partitions);
+                if (held == null) {
+                    continue;
+                }
+                // moi phan can mot lan goi rieng cua chuoi advisor phia sau
+                MethodInvocation call = invocation instanceof ProxyMethodInvocation proxied
+                        ? proxied.invocableClone()
+                        : invocation;
+                result = service.runWithLease(held, call::proceed);
+                ran++;
+            }
+            if (ran == 0) {
+                logger.debug("Skip {}: lock {} is held by another node", method.getName(), lock.name());
+            }
+            return result;
+        }
+    }
+}
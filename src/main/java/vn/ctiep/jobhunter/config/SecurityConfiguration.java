@@ -16,7 +16,6 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.JwtEncoder;
-import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
 import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
@@ -25,7 +24,9 @@ import org.springframework.security.web.SecurityFilterChain;
 import com.nimbusds.jose.jwk.source.ImmutableSecret;
 import com.nimbusds.jose.util.Base64;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import vn.ctiep.jobhunter.service.CustomOAuth2UserService;
+import vn.ctiep.jobhunter.service.JwtVerificationService;
 import vn.ctiep.jobhunter.util.SecurityUtil;
 
 @Configuration
@@ -41,9 +42,21 @@ public class SecurityConfiguration {
         this.customOAuth2UserService = customOAuth2UserService;
     }
 
+    // 0 = so CPU
+    @Value("${ctiep.auth.hash-threads:0}")
+    private int hashThreads;
+
+    @Value("${ctiep.auth.hash-queue-capacity:50}")
+    private int hashQueueCapacity;
+
+    @Value("${ctiep.auth.hash-timeout-ms:5000}")
+    private long hashTimeoutMs;
+
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
+        int threads = this.hashThreads > 0 ? this.hashThreads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(), threads, this.hashQueueCapacity,
+                this.hashTimeoutMs, meterRegistry);
     }
 
     @Bean
@@ -109,12 +122,10 @@ public class SecurityConfiguration {
     }
 
     @Bean
-    public JwtDecoder jwtDecoder() {
-        NimbusJwtDecoder jwtDecoder = NimbusJwtDecoder.withSecretKey(
-                getSecretKey()).macAlgorithm(SecurityUtil.JWT_ALGORITHM).build();
+    public JwtDecoder jwtDecoder(JwtVerificationService jwtVerificationService) {
         return token -> {
             try {
-                return jwtDecoder.decode(token);
+                return jwtVerificationService.decode(token);
             } catch (Exception e) {
                 System.out.println(">>> JWT error: " + e.getMessage());
                 throw e;
@@ -0,0 +1,259 @@
+package vn.ctiep.jobhunter.config;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import java.time.Instant;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.scheduling.TaskScheduler;
+
+import com.github.benmanes.caffeine.cache.Cache;
+
+/**
+ * Cache 2 tang: L1 la Caffeine trong tung node, L2 la Redis dung chung.
+ *
+ * Doc: L1 -> L2 -> nap tu DB. Ghi/xoa di ca 2 tang va phat thong bao qua Redis
+ * pub/sub de cac node khac xoa L1 cua minh. Loi Redis chi ghi log, cache van chay
+ * voi L1.
+ *
+ * Lan nap bat dau truoc mot lan xoa (doc DB truoc khi transaction ghi commit) co
+ * the ghi gia tri cu sau khi da xoa: moi lan xoa tang generation, lan nap thay
+ * generation doi thi bo gia tri vua ghi; them mot lan xoa thu hai sau
+ * second-evict-delay cho lan nap o node khac chua kip nhan thong bao.
+ */
+public class TwoLevelCache extends AbstractValueAdaptingCache {
+    private static final Logger logger = LoggerFactory.getLogger(TwoLevelCache.class);
+
+    static final String CLEAR_ALL = "*";
+
+    private final String name;
+    private final Cache<Object, Object> l1;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final Duration l2Ttl;
+    private final String channel;
+    private final TaskScheduler taskScheduler;
+    private final Duration secondEvictDelay;
+
+    // tang sau moi lan xoa (ke ca thong bao tu node khac)
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder l2Hits = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public TwoLevelCache(String name, Cache<Object, Object> l1, RedisTemplate<String, Object> redisTemplate,
+            Duration l2Ttl, String channel, TaskScheduler taskScheduler, Duration secondEvictDelay) {
+        super(false);
+        this.name = name;
+        this.l1 = l1;
+        this.redisTemplate = redisTemplate;
+        this.l2Ttl = l2Ttl;
+        this.channel = channel;
+        this.taskScheduler = taskScheduler;
+        this.secondEvictDelay = secondEvictDelay;
+    }
+
+    @Override
+    public String getName() {
+        return this.name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return this.l1;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        Object value = this.l1.getIfPresent(key);
+        if (value == null) {
+            value = this.getFromRedis(key);
+            if (value != null) {
+                this.l2Hits.increment();
+                this.l1.put(key, value);
+            }
+        }
+        if (value == null) {
+            this.misses.increment();
+        } else {
+            this.hits.increment();
+        }
+        return value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Object value = this.lookup(key);
+        if (value != null) {
+            return (T) value;
+        }
+        long startGeneration = this.generation.get();
+        // nhieu request cung key tren mot node chi nap DB mot lan
+        Object loaded = this.l1.get(key, k -> {
+            try {
+                T result = valueLoader.call();
+                if (result != null) {
+                    this.putToRedis(k, result);
+                    this.puts.increment();
+                }
+                return result;
+            } catch (Exception e) {
+                throw new ValueRetrievalException(k, valueLoader, e);
+            }
+        });
+        if (loaded != null && this.generation.get() != startGeneration) {
+            // co lan xoa trong luc nap: gia tri co the da cu, van tra ve nhung khong giu lai
+            this.l1.asMap().remove(key, loaded);
+            this.deleteFromRedis(key);
+        }
+        return (T) loaded;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (value == null) {
+            return;
+        }
+        this.l1.put(key, value);
+        this.putToRedis(key, value);
+        this.puts.increment();
+    }
+
+    @Override
+    public void evict(Object key) {
+        this.evictEverywhere(key);
+        this.scheduleSecondPass(() -> this.evictEverywhere(key));
+    }
+
+    @Override
+    public void clear() {
+        this.clearEverywhere();
+        this.scheduleSecondPass(this::clearEverywhere);
+    }
+
+    private void evictEverywhere(Object key) {
+        this.evictLocal(key);
+        this.deleteFromRedis(key);
+        this.publish(String.valueOf(key));
+    }
+
+    private void clearEverywhere() {
+        this.clearLocal();
+        try {
+            ScanOptions options = ScanOptions.scanOptions().match(this.redisKey(CLEAR_ALL)).count(500).build();
+            try (Cursor<String> cursor = this.redisTemplate.scan(options)) {
+                Set<String> batch = new HashSet<>();
+                while (cursor.hasNext()) {
+                    batch.add(cursor.next());
+                    if (batch.size() >= 500) {
+                        this.redisTemplate.delete(batch);
+                        batch.clear();
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    this.redisTemplate.delete(batch);
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Could not clear Redis cache {}", this.name, e);
+        }
+        this.publish(CLEAR_ALL);
+    }
+
+    private void scheduleSecondPass(Runnable pass) {
+        if (this.secondEvictDelay.isZero()) {
+            return;
+        }
+        try {
+            this.taskScheduler.schedule(pass, Instant.now().plus(this.secondEvictDelay));
+        } catch (RuntimeException e) {
+            logger.warn("Could not schedule second eviction for cache {}", this.name, e);
+        }
+    }
+
+    // Goi khi nhan thong bao tu node khac: chi xoa L1
+    void evictLocal(Object key) {
+        this.generation.incrementAndGet();
+        this.l1.invalidate(key);
+        this.evictions.increment();
+    }
+
+    void clearLocal() {
+        this.generation.incrementAndGet();
+        this.evictions.add(this.l1.estimatedSize());
+        this.l1.invalidateAll();
+    }
+
+    long getHits() {
+        return this.hits.sum();
+    }
+
+    long getMisses() {
+        return this.misses.sum();
+    }
+
+    long getL2Hits() {
+        return this.l2Hits.sum();
+    }
+
+    long getPuts() {
+        return this.puts.sum();
+    }
+
+    long getEvictions() {
+        return this.evictions.sum();
+    }
+
+    long getL1Size() {
+        return this.l1.estimatedSize();
+    }
+
+    private String redisKey(Object key) {
+        return "cache:" + this.name + ":" + key;
+    }
+
+    private Object getFromRedis(Object key) {
+        try {
+            return this.redisTemplate.opsForValue().get(this.redisKey(key));
+        } catch (RuntimeException e) {
+            logger.warn("Could not read {} from Redis cache {}", key, this.name, e);
+            return null;
+        }
+    }
+
+    private void deleteFromRedis(Object key) {
+        try {
+            this.redisTemplate.delete(this.redisKey(key));
+        } catch (RuntimeException e) {
+            logger.warn("Could not evict {} from Redis cache {}", key, this.name, e);
+        }
+    }
+
+    private void putToRedis(Object key, Object value) {
+        try {
+            this.redisTemplate.opsForValue().set(this.redisKey(key), value, this.l2Ttl);
+        } catch (RuntimeException e) {
+            logger.warn("Could not write {} to Redis cache {}", key, this.name, e);
+        }
+    }
+
+    private void publish(String key) {
+        try {
+            this.redisTemplate.convertAndSend(this.channel, this.name + "|" + key);
+        } catch (RuntimeException e) {
+            logger.warn("Could not publish invalidation for cache {}", this.name, e);
+        }
+    }
+}
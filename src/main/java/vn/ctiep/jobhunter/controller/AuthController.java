@@ -11,6 +11,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtException;
 import org.springframework.web.bind.annotation.CookieValue;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -18,6 +19,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import vn.ctiep.jobhunter.domain.Company;
 import vn.ctiep.jobhunter.domain.Role;
@@ -28,11 +30,15 @@ import vn.ctiep.jobhunter.domain.request.ReqRegisterRecruiterDTO;
 import vn.ctiep.jobhunter.domain.response.ResCreateUserDTO;
 import vn.ctiep.jobhunter.domain.response.ResLoginDTO;
 import vn.ctiep.jobhunter.service.CompanyService;
+import vn.ctiep.jobhunter.service.JwtVerificationService;
+import vn.ctiep.jobhunter.service.LoginThrottleService;
+import vn.ctiep.jobhunter.service.RefreshSessionService;
 import vn.ctiep.jobhunter.service.RoleService;
 import vn.ctiep.jobhunter.service.UserService;
 import vn.ctiep.jobhunter.util.SecurityUtil;
 import vn.ctiep.jobhunter.util.annotation.ApiMessage;
 import vn.ctiep.jobhunter.util.error.IdInvalidException;
+import vn.ctiep.jobhunter.util.error.TooManyRequestsException;
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken.Payload;
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier;
@@ -56,19 +62,28 @@ public class AuthController {
     private long refreshTokenExpiration;
     private final CompanyService companyService;
     private final RoleService roleService;
+    private final RefreshSessionService refreshSessionService;
+    private final LoginThrottleService loginThrottleService;
 
     public AuthController(AuthenticationManagerBuilder authenticationManagerBuilder, SecurityUtil securityUtil,
-            UserService userService, PasswordEncoder passwordEncoder, CompanyService companyService,RoleService roleService) {
+            UserService userService, PasswordEncoder passwordEncoder, CompanyService companyService,RoleService roleService,
+            RefreshSessionService refreshSessionService, LoginThrottleService loginThrottleService) {
         this.authenticationManagerBuilder = authenticationManagerBuilder;
         this.securityUtil = securityUtil;
         this.userService = userService;
         this.passwordEncoder = passwordEncoder;
         this.companyService = companyService;
         this.roleService = roleService;
+        this.refreshSessionService = refreshSessionService;
+        this.loginThrottleService = loginThrottleService;
     }
 
     @PostMapping("/auth/login")
-    public ResponseEntity<ResLoginDTO> login(@Valid @RequestBody ReqLoginDTO logindDto) {
+    public ResponseEntity<ResLoginDTO> login(@Valid @RequestBody ReqLoginDTO logindDto, HttpServletRequest request)
+            throws TooManyRequestsException {
+        // gioi han theo IP/tai khoan truoc khi bam mat khau
+        this.loginThrottleService.check(request.getRemoteAddr(), logindDto.getUsername());
+
         // Nạp input gồm username/password vào Security
         UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
                 logindDto.getUsername(), logindDto.getPassword());
@@ -101,10 +116,8 @@ public class AuthController {
         res.setAccessToken(access_token);
 
         // create refreshToken
-        String refresh_token = this.securityUtil.createRefreshToken(logindDto.getUsername(), res);
-
-        // update user
-        this.userService.updateUserToken(refresh_token, logindDto.getUsername());
+        String sessionId = this.refreshSessionService.create(res.getUser().getId(), logindDto.getUsername());
+        String refresh_token = this.securityUtil.createRefreshToken(logindDto.getUsername(), res, sessionId);
 
         // set cookies
         ResponseCookie resCookies = ResponseCookie.from("refresh_token", refresh_token)
@@ -156,9 +169,13 @@ public class AuthController {
         // Check valid
         Jwt decodedToken = this.securityUtil.checkValidRefreshToken(refresh_token);
         String email = decodedToken.getSubject();
-        // check user by token + email
-        User currentUser = this.userService.getUserByRefreshTokenAndEmail(refresh_token, email);
-        if (currentUser == null) {
+        ResLoginDTO.UserInsideToken tokenUser = JwtVerificationService.userOf(decodedToken);
+        if (tokenUser == null || decodedToken.getId() == null) {
+            throw new IdInvalidException("Refresh Token không hợp lệ");
+        }
+        // doi phien cu lay phien moi: token cu khong dung lai duoc
+        String sessionId = this.refreshSessionService.rotate(tokenUser.getId(), email, decodedToken.getId());
+        if (sessionId == null) {
             throw new IdInvalidException("Refresh Token không hợp lệ");
         }
         // issue new token/set refresh token as cookies
@@ -185,10 +202,7 @@ public class AuthController {
         res.setAccessToken(access_token);
 
         // create refreshToken
-        String new_refresh_token = this.securityUtil.createRefreshToken(email, res);
-
-        // update user
-        this.userService.updateUserToken(new_refresh_token, email);
+        String new_refresh_token = this.securityUtil.createRefreshToken(email, res, sessionId);
 
         // set cookies
         ResponseCookie resCookies = ResponseCookie.from("refresh_token", new_refresh_token)
@@ -204,14 +218,25 @@ public class AuthController {
 
     @PostMapping("auth/logout")
     @ApiMessage("Logout User")
-    public ResponseEntity<Void> logout() throws IdInvalidException {
+    public ResponseEntity<Void> logout(
+            @CookieValue(name = "refresh_token", required = false) String refresh_token) throws IdInvalidException {
         String email = SecurityUtil.getCurrentUserLogin().isPresent() ? SecurityUtil.getCurrentUserLogin().get() : "";
 
         if (email.equals("")) {
             throw new IdInvalidException("Access Token không hợp lệ");
         }
-        // update refresh token = null
-        this.userService.updateUserToken(null, email);
+        // xoa phien cua thiet bi nay, cac thiet bi khac van dang nhap
+        if (refresh_token != null) {
+            try {
+                Jwt decodedToken = this.securityUtil.checkValidRefreshToken(refresh_token);
+                ResLoginDTO.UserInsideToken tokenUser = JwtVerificationService.userOf(decodedToken);
+                if (tokenUser != null && decodedToken.getId() != null) {
+                    this.refreshSessionService.revoke(tokenUser.getId(), decodedToken.getId());
+                }
+            } catch (JwtException e) {
+                // cookie het han/sai: khong con phien de xoa
+            }
+        }
         // remove refresh token cookie
         ResponseCookie deleteSpringCookie = ResponseCookie
                 .from("refresh_token", null)
@@ -226,6 +251,27 @@ public class AuthController {
                 .body(null);
     }
 
+    @PostMapping("/auth/logout-all")
+    @ApiMessage("Logout user from all devices")
+    public ResponseEntity<Void> logoutAll() throws IdInvalidException {
+        long userId = SecurityUtil.getCurrentUserInsideToken()
+                .map(ResLoginDTO.UserInsideToken::getId)
+                .orElseThrow(() -> new IdInvalidException("Access Token không hợp lệ"));
+        // huy moi refresh token cua user; access token con lai het han theo exp
+        this.refreshSessionService.revokeAll(userId);
+        ResponseCookie deleteSpringCookie = ResponseCookie
+                .from("refresh_token", null)
+                .httpOnly(true)
+                .secure(true)
+                .path("/")
+                .maxAge(0)
+                .build();
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.SET_COOKIE, deleteSpringCookie.toString())
+                .body(null);
+    }
+
     @PostMapping("/auth/register")
     @ApiMessage("Register a new user")
     public ResponseEntity<ResCreateUserDTO> register(@Valid @RequestBody User postManUser) throws IdInvalidException {
@@ -331,8 +377,8 @@ public class AuthController {
         res.setUser(userLogin);
 
         String accessToken = securityUtil.createAccessToken(user.getEmail(), res);
-        String refreshToken = securityUtil.createRefreshToken(user.getEmail(), res);
-        userService.updateUserToken(refreshToken, user.getEmail());
+        String sessionId = refreshSessionService.create(user.getId(), user.getEmail());
+        String refreshToken = securityUtil.createRefreshToken(user.getEmail(), res, sessionId);
 
         ResponseCookie cookie = ResponseCookie.from("refresh_token", refreshToken)
                 .httpOnly(true)
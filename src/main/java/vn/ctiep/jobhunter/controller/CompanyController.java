@@ -14,6 +14,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import com.turkraft.springfilter.boot.Filter;
 
@@ -23,15 +24,19 @@ import jakarta.validation.Valid;
 import vn.ctiep.jobhunter.domain.Company;
 import vn.ctiep.jobhunter.domain.response.ResultPaginationDTO;
 import vn.ctiep.jobhunter.service.CompanyService;
+import vn.ctiep.jobhunter.service.ResourceVersionService;
 import vn.ctiep.jobhunter.util.annotation.ApiMessage;
+import vn.ctiep.jobhunter.util.error.IdInvalidException;
 
 @RestController
 @RequestMapping("api/v1")
 public class CompanyController {
     private final CompanyService companyService;
+    private final ResourceVersionService resourceVersionService;
 
-    public CompanyController(CompanyService companyService) {
+    public CompanyController(CompanyService companyService, ResourceVersionService resourceVersionService) {
         this.companyService = companyService;
+        this.resourceVersionService = resourceVersionService;
     }
 
     @PostMapping("/companies")
@@ -41,9 +46,16 @@ public class CompanyController {
 
     @GetMapping("/companies")
     public ResponseEntity<ResultPaginationDTO> getCompany(
-            @Filter Specification<Company> spec, Pageable pageable) {
-
-        return ResponseEntity.status(HttpStatus.OK).body(this.companyService.handleGetCompany(spec, pageable));
+            @Filter Specification<Company> spec, Pageable pageable,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "withTotal", defaultValue = "false") boolean withTotal,
+            WebRequest request) throws IdInvalidException {
+        long lastModified = this.resourceVersionService.lastModified(ResourceVersionService.COMPANIES);
+        if (lastModified > 0 && request.checkNotModified(lastModified)) {
+            return null;
+        }
+        return ResponseEntity.status(HttpStatus.OK)
+                .body(this.companyService.handleGetCompany(spec, pageable, cursor, withTotal));
     }
 
     @PutMapping("/companies")
@@ -60,8 +72,16 @@ public class CompanyController {
 
     @GetMapping("/companies/{id}")
     @ApiMessage("fetch company by id")
-    public ResponseEntity<Company> fetchCompanyById(@PathVariable("id") long id) {
-        Optional<Company> cOptional = this.companyService.findById(id);
+    public ResponseEntity<Company> fetchCompanyById(@PathVariable("id") long id, WebRequest request)
+            throws IdInvalidException {
+        String etag = this.resourceVersionService.companyETag(id);
+        if (etag != null && request.checkNotModified(etag)) {
+            return null;
+        }
+        Optional<Company> cOptional = this.companyService.fetchCompanyDetail(id);
+        if (cOptional.isEmpty()) {
+            throw new IdInvalidException("Company not found");
+        }
         return ResponseEntity.status(HttpStatus.OK).body(cOptional.get());
     }
 
@@ -2,7 +2,6 @@ package vn.ctiep.jobhunter.controller;
 
 import org.springframework.http.ResponseEntity;
 import org.springframework.scheduling.annotation.Scheduled;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -10,6 +9,7 @@ import org.springframework.web.bind.annotation.RestController;
 import vn.ctiep.jobhunter.service.EmailService;
 import vn.ctiep.jobhunter.service.SubscriberService;
 import vn.ctiep.jobhunter.util.annotation.ApiMessage;
+import vn.ctiep.jobhunter.util.annotation.SchedulerLock;
 
 @RestController
 @RequestMapping("/api/v1")
@@ -27,7 +27,7 @@ public class EmailController {
     @GetMapping("/email")
     @ApiMessage("Send simple email")
     @Scheduled(cron = "0 0 9 * * *") // gửi lúc 9h sáng hàng ngày
-    @Transactional
+    @SchedulerLock(name = "subscriber-digest", leaseSeconds = 3600, minLeaseSeconds = 300) // một node mỗi lần
     public ResponseEntity<?> sendSimpleEmail() {
         int sentCount = this.subscriberService.sendSubscribersEmailJobs();
         System.out.println("Run cronjob send email ....");
@@ -6,13 +6,16 @@ import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import com.turkraft.springfilter.boot.Filter;
 import jakarta.validation.Valid;
 import vn.ctiep.jobhunter.domain.Job;
 import vn.ctiep.jobhunter.domain.response.ResultPaginationDTO;
 import vn.ctiep.jobhunter.domain.response.job.ResCreateJobDTO;
 import vn.ctiep.jobhunter.domain.response.job.ResUpdateJobDTO;
+import vn.ctiep.jobhunter.service.JobSearchService;
 import vn.ctiep.jobhunter.service.JobService;
+import vn.ctiep.jobhunter.service.ResourceVersionService;
 import vn.ctiep.jobhunter.util.annotation.ApiMessage;
 import vn.ctiep.jobhunter.util.constant.JobStatusEnum;
 import vn.ctiep.jobhunter.util.error.IdInvalidException;
@@ -22,9 +25,14 @@ import vn.ctiep.jobhunter.util.error.IdInvalidException;
 public class JobController {
 
     private final JobService jobService;
+    private final JobSearchService jobSearchService;
+    private final ResourceVersionService resourceVersionService;
 
-    public JobController(JobService jobService) {
+    public JobController(JobService jobService, JobSearchService jobSearchService,
+            ResourceVersionService resourceVersionService) {
         this.jobService = jobService;
+        this.jobSearchService = jobSearchService;
+        this.resourceVersionService = resourceVersionService;
     }
 
     @PostMapping("/jobs")
@@ -59,8 +67,13 @@ public class JobController {
 
     @GetMapping("/jobs/{id}")
     @ApiMessage("Get a job by id")
-    public ResponseEntity<Job> getJob(@PathVariable("id") long id) throws IdInvalidException {
-        Optional<Job> currentJob = this.jobService.fetchJobById(id);
+    public ResponseEntity<Job> getJob(@PathVariable("id") long id, WebRequest request) throws IdInvalidException {
+        // If-None-Match khop thi tra 304, khong nap job
+        String etag = this.resourceVersionService.jobETag(id);
+        if (etag != null && request.checkNotModified(etag)) {
+            return null;
+        }
+        Optional<Job> currentJob = this.jobService.fetchJobDetail(id);
         if (!currentJob.isPresent()) {
             throw new IdInvalidException("Job not found");
         }
@@ -71,17 +84,36 @@ public class JobController {
     @ApiMessage("Get job with pagination")
     public ResponseEntity<ResultPaginationDTO> getAllJob(
             @Filter Specification<Job> spec,
-            Pageable pageable) {
-        return ResponseEntity.ok().body(this.jobService.fetchAll(spec, pageable));
+            Pageable pageable,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "withTotal", defaultValue = "false") boolean withTotal,
+            WebRequest request) throws IdInvalidException {
+        // card job gom ca thong tin company va skill
+        long lastModified = this.resourceVersionService.lastModified(ResourceVersionService.JOBS,
+                ResourceVersionService.COMPANIES, ResourceVersionService.SKILLS);
+        if (lastModified > 0 && request.checkNotModified(lastModified)) {
+            return null;
+        }
+        return ResponseEntity.ok().body(this.jobService.fetchAll(spec, pageable, cursor, withTotal));
     }
+    @GetMapping("/jobs/search")
+    @ApiMessage("Full-text search jobs")
+    public ResponseEntity<ResultPaginationDTO> searchJobs(
+            @RequestParam("q") String q,
+            Pageable pageable) throws IdInvalidException {
+        return ResponseEntity.ok().body(this.jobSearchService.search(q, pageable));
+    }
+
     @GetMapping("/companies/{companyId}/jobs")
     @ApiMessage("Get jobs by company id for recruiter")
     public ResponseEntity<ResultPaginationDTO> getJobsByCompanyId(
             @PathVariable("companyId") long companyId,
             @Filter Specification<Job> spec,
-            Pageable pageable) {
+            Pageable pageable,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "withTotal", defaultValue = "false") boolean withTotal) throws IdInvalidException {
 
-        return ResponseEntity.ok().body(this.jobService.fetchByCompanyId(companyId, spec, pageable));
+        return ResponseEntity.ok().body(this.jobService.fetchByCompanyId(companyId, spec, pageable, cursor, withTotal));
     }
 
     @PutMapping("/jobs/{id}/restore")
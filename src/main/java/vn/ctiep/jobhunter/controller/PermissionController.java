@@ -11,6 +11,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import com.turkraft.springfilter.boot.Filter;
 import jakarta.validation.Valid;
@@ -76,8 +77,10 @@ public class PermissionController {
     @GetMapping("/permissions")
     @ApiMessage("Fetch permissions")
     public ResponseEntity<ResultPaginationDTO> getPermissions(
-            @Filter Specification<Permission> spec, Pageable pageable) {
+            @Filter Specification<Permission> spec, Pageable pageable,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "withTotal", defaultValue = "false") boolean withTotal) throws IdInvalidException {
 
-        return ResponseEntity.ok(this.permissionService.getPermissions(spec, pageable));
+        return ResponseEntity.ok(this.permissionService.getPermissions(spec, pageable, cursor, withTotal));
     }
 }
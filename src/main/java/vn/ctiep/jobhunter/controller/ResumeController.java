@@ -1,9 +1,7 @@
 package vn.ctiep.jobhunter.controller;
 
 import java.util.Date;
-import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,8 +14,6 @@ import com.turkraft.springfilter.boot.Filter;
 import com.turkraft.springfilter.builder.FilterBuilder;
 import com.turkraft.springfilter.converter.FilterSpecificationConverter;
 import jakarta.validation.Valid;
-import vn.ctiep.jobhunter.domain.Company;
-import vn.ctiep.jobhunter.domain.Job;
 import vn.ctiep.jobhunter.domain.Resume;
 import vn.ctiep.jobhunter.domain.User;
 import vn.ctiep.jobhunter.domain.response.NotificationDTO;
@@ -25,8 +21,7 @@ import vn.ctiep.jobhunter.domain.response.ResultPaginationDTO;
 import vn.ctiep.jobhunter.domain.response.resume.ResCreateResumeDTO;
 import vn.ctiep.jobhunter.domain.response.resume.ResFetchResumeDTO;
 import vn.ctiep.jobhunter.domain.response.resume.ResUpdateResumeDTO;
-import vn.ctiep.jobhunter.repository.ResumeRepository;
-import vn.ctiep.jobhunter.service.EmailService;
+import vn.ctiep.jobhunter.repository.ResumeSpecifications;
 import vn.ctiep.jobhunter.service.ResumeService;
 import vn.ctiep.jobhunter.service.UserService;
 import vn.ctiep.jobhunter.service.WebSocketService;
@@ -41,8 +36,6 @@ public class ResumeController {
     private static final Logger log = LoggerFactory.getLogger(ResumeController.class);
     private final ResumeService resumeService;
     private final UserService userService;
-    private final EmailService emailService;
-    private final ResumeRepository resumeRepository;
     private final FilterBuilder filterBuilder;
     private final FilterSpecificationConverter filterSpecificationConverter;
     private final WebSocketService webSocketService;
@@ -50,15 +43,11 @@ public class ResumeController {
     public ResumeController(
             ResumeService resumeService,
             UserService userService,
-            EmailService emailService,
-            ResumeRepository resumeRepository,
             FilterBuilder filterBuilder,
             FilterSpecificationConverter filterSpecificationConverter,
             WebSocketService webSocketService) {
         this.resumeService = resumeService;
         this.userService = userService;
-        this.emailService = emailService;
-        this.resumeRepository = resumeRepository;
         this.filterBuilder = filterBuilder;
         this.filterSpecificationConverter = filterSpecificationConverter;
         this.webSocketService = webSocketService;
@@ -93,21 +82,8 @@ public class ResumeController {
             throw new IdInvalidException("Không tìm thấy thông tin người dùng cho hồ sơ này");
         }
 
-        //Kiem tra neu trang thai la HIRED
-        if (resume.getStatus() == ResumeStateEnum.HIRED) {
-            if (resume.getJob() == null) {
-                resume.setJob(reqResume.getJob());
-            }
-            //Kiem tra so luong
-            long hiredCount = resumeRepository.countByJobIdAndStatus(resume.getJob().getId(), ResumeStateEnum.HIRED);
-            int jobQuantity = resume.getJob().getQuantity();
-            if (hiredCount >= jobQuantity) {
-                throw new IdInvalidException("Số lượng ứng viên đã đạt giới hạn cho công việc này.");
-            }
-        }
-
-        // Cập nhật trạng thái
-        reqResume.setStatus(resume.getStatus());
+        // Cập nhật trạng thái; vào HIRED thì giữ suất của job (hết suất -> IdInvalidException)
+        ResUpdateResumeDTO updated = this.resumeService.updateStatus(reqResume, resume.getStatus());
 
         // Tạo notification
         NotificationDTO notification = new NotificationDTO();
@@ -116,73 +92,29 @@ public class ResumeController {
         notification.setUserId(reqResume.getUser().getId()); // Sử dụng user từ reqResume
         notification.setTimestamp(new Date());
 
+        // email gui qua outbox (ghi cung transaction voi resume, gui nen)
         switch (resume.getStatus()) {
             case APPROVED:
-                String confirmationUrl = "http://localhost:5173/" + reqResume.getId(); // frontend xử lý confirm
-                this.emailService.sendInterviewInvitationEmail(
-                        reqResume.getEmail(),
-                        reqResume.getUser().getName(),
-                        reqResume.getJob().getName(),
-                        reqResume.getJob().getCompany().getName(),
-                        confirmationUrl
-                );
                 notification.setMessage("Bạn đã được mời phỏng vấn cho vị trí " + reqResume.getJob().getName());
                 break;
             case REJECTED:
                 notification.setMessage("Đơn ứng tuyển của bạn đã bị từ chối");
                 break;
             case PASSED:
-                String confirmationUrl2 = "http://localhost:5173/" + reqResume.getId(); // frontend xử lý confirm
-                this.emailService.sendInterviewPassedEmail(
-                        reqResume.getEmail(),
-                        reqResume.getUser().getName(),
-                        reqResume.getJob().getName(),
-                        reqResume.getJob().getCompany().getName(),
-                        confirmationUrl2
-                );
                 notification.setMessage("Chức mừng! Bạn đã vượt qua vòng phỏng vấn cho vị trí " + reqResume.getJob().getName());
                 break;
             case FAILED:
-                this.emailService.sendInterviewFailedEmail(
-                        reqResume.getEmail(),
-                        reqResume.getUser().getName(),
-                        reqResume.getJob().getName(),
-                        reqResume.getJob().getCompany().getName()
-                );
                 notification.setMessage("Bạn đã không vượt qua vòng phỏng vấn cho vị trí " + reqResume.getJob().getName());
                 break;
             case HIRED:
-                this.emailService.sendHiredEmail(
-                        reqResume.getEmail(),
-                        reqResume.getUser().getName(),
-                        reqResume.getJob().getName(),
-                        reqResume.getJob().getCompany().getName()
-                );
                 notification.setMessage("Chúc mừng! Bạn đã được nhận vào vị trí " + reqResume.getJob().getName());
                 break;
         }
         //log.info("Sending notification to user {}: {}", reqResume.getUser().getId(), notification);
         webSocketService.sendNotificationToUser(reqResume.getUser().getId(), notification);
 
-        // update a resume
-        ResUpdateResumeDTO updated = this.resumeService.update(reqResume);
-
-        //Kiem tra xem có phải là người cuối tuyển không
-        boolean isLastHire = false;
-        if (resume.getStatus() == ResumeStateEnum.HIRED) {
-            long hiredCountAfter = resumeRepository.countByJobIdAndStatus(resume.getJob().getId(), ResumeStateEnum.HIRED);
-            int jobQuantity = resume.getJob().getQuantity();
-            if (hiredCountAfter == jobQuantity) {
-                isLastHire = true;
-            }
-        }
-        
-        ResUpdateResumeDTO res = new ResUpdateResumeDTO();
-        res.setCreatedAt(updated.getCreatedAt());
-        res.setCreatedBy(updated.getCreatedBy());
-        res.setMessage(isLastHire ? "Đã tuyển đủ số lượng ứng viên cho công việc này." : null);
-
-        return ResponseEntity.ok(res);
+        // nếu là người cuối tuyển, job đã được đóng và updated có message
+        return ResponseEntity.ok(updated);
     }
 
     @DeleteMapping("/resumes/{id}")
@@ -216,63 +148,31 @@ public class ResumeController {
     @ApiMessage("Fetch all resume with paginate")
     public ResponseEntity<ResultPaginationDTO> fetchAll(
             @Filter Specification<Resume> spec,
-            Pageable pageable) {
+            Pageable pageable,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "withTotal", defaultValue = "false") boolean withTotal) throws IdInvalidException {
 
-        List<Long> arrJobIds = null;
-        List<Long> arrUserIds = null;
         String email = SecurityUtil.getCurrentUserLogin().orElse("");
-
         User currentUser = this.userService.handleGetUserByUsername(email);
 
-        if (currentUser != null) {
-            Company userCompany = currentUser.getCompany();
-            if (userCompany == null) {
-            } else {
-
-                List<Job> companyJobs = userCompany.getJobs();
-                arrJobIds = (companyJobs != null) ? companyJobs.stream().map(Job::getId).collect(Collectors.toList()) : null;
-
-                List<User> companyUsers = userCompany.getUsers();
-                arrUserIds = (companyUsers != null) ? companyUsers.stream().map(User::getId).collect(Collectors.toList()) : null;
-            }
+        // HR chi thay resume vao job cua company minh; loc ngay trong SQL (subquery theo company id)
+        // thay vi nap danh sach job/user cua company roi tao IN (...)
+        Specification<Resume> finalSpec = spec;
+        if (currentUser != null && currentUser.getCompany() != null) {
+            finalSpec = Specification.where(ResumeSpecifications.inCompany(currentUser.getCompany().getId()))
+                    .and(spec);
         }
 
-        Specification<Resume> jobInSpec = null;
-        Specification<Resume> userInSpec = null;
-
-        List<Long> finalArrJobIds = arrJobIds;
-        List<Long> finalArrUserIds = arrUserIds;
-        //Tao specification cho job
-        if (finalArrJobIds != null && !finalArrJobIds.isEmpty()) {
-            jobInSpec = (root, query, criteriaBuilder) -> root.get("job").get("id").in(finalArrJobIds);
-        }
-        //Tao specification cho user
-        if (finalArrUserIds != null && !finalArrUserIds.isEmpty()) {
-            userInSpec = (root, query, criteriaBuilder) -> root.get("user").get("id").in(finalArrUserIds);
-        }
-
-
-        Specification<Resume> companySpec = null;
-        //Ket hop cac specification
-        if (jobInSpec != null && userInSpec != null) {
-            companySpec = jobInSpec.or(userInSpec);
-        } else if (jobInSpec != null) {
-            companySpec = jobInSpec;
-        } else if (userInSpec != null) {
-            companySpec = userInSpec;
-
-        }
-        //Ket hop với specification tu client
-        Specification<Resume> finalSpec = Specification.where(companySpec).and(spec);
-
-        return ResponseEntity.ok().body(this.resumeService.fetchAllResume(finalSpec, pageable));
+        return ResponseEntity.ok().body(this.resumeService.fetchAllResume(finalSpec, pageable, cursor, withTotal));
     }
 
     @PostMapping("/resumes/by-user")
     @ApiMessage("Get list resumes by user")
-    public ResponseEntity<ResultPaginationDTO> fetchResumeByUser(Pageable pageable) {
+    public ResponseEntity<ResultPaginationDTO> fetchResumeByUser(Pageable pageable,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "withTotal", defaultValue = "false") boolean withTotal) throws IdInvalidException {
 
-        return ResponseEntity.ok().body(this.resumeService.fetchResumeByUser(pageable));
+        return ResponseEntity.ok().body(this.resumeService.fetchResumeByUser(pageable, cursor, withTotal));
     }
 
 
@@ -291,11 +191,8 @@ public class ResumeController {
             throw new IdInvalidException("Chỉ có thể xác nhận phỏng vấn khi đơn đang ở trạng thái APPROVED");
         }
 
-        // Cập nhật trạng thái
-        reqResume.setStatus(ResumeStateEnum.INTERVIEW_CONFIRMED);
-
-        // Cập nhật trong DB
-        return ResponseEntity.ok().body(this.resumeService.update(reqResume));
+        // Cập nhật trạng thái trong DB
+        return ResponseEntity.ok().body(this.resumeService.updateStatus(reqResume, ResumeStateEnum.INTERVIEW_CONFIRMED));
     }
 
 }
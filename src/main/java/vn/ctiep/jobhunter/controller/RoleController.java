@@ -11,6 +11,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import com.turkraft.springfilter.boot.Filter;
 import jakarta.validation.Valid;
@@ -65,9 +66,11 @@ public class RoleController {
     @GetMapping("/roles")
     @ApiMessage("Fetch roles")
     public ResponseEntity<ResultPaginationDTO> getPermissions(
-            @Filter Specification<Role> spec, Pageable pageable) {
+            @Filter Specification<Role> spec, Pageable pageable,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "withTotal", defaultValue = "false") boolean withTotal) throws IdInvalidException {
 
-        return ResponseEntity.ok(this.roleService.getRoles(spec, pageable));
+        return ResponseEntity.ok(this.roleService.getRoles(spec, pageable, cursor, withTotal));
     }
 
     @GetMapping("/roles/{id}")
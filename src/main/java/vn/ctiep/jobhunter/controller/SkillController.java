@@ -11,11 +11,14 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import com.turkraft.springfilter.boot.Filter;
 import jakarta.validation.Valid;
 import vn.ctiep.jobhunter.domain.Skill;
 import vn.ctiep.jobhunter.domain.response.ResultPaginationDTO;
+import vn.ctiep.jobhunter.service.ResourceVersionService;
 import vn.ctiep.jobhunter.service.SkillService;
 import vn.ctiep.jobhunter.util.annotation.ApiMessage;
 import vn.ctiep.jobhunter.util.error.IdInvalidException;
@@ -24,9 +27,11 @@ import vn.ctiep.jobhunter.util.error.IdInvalidException;
 @RequestMapping("api/v1")
 public class SkillController {
     private final SkillService skillService;
+    private final ResourceVersionService resourceVersionService;
 
-    public SkillController(SkillService skillService) {
+    public SkillController(SkillService skillService, ResourceVersionService resourceVersionService) {
         this.skillService = skillService;
+        this.resourceVersionService = resourceVersionService;
     }
 
     @PostMapping("/skills")
@@ -70,7 +75,15 @@ public class SkillController {
     @GetMapping("/skills")
     @ApiMessage("fetch all skills")
     public ResponseEntity<ResultPaginationDTO> getAll(@Filter Specification<Skill> spec,
-            Pageable pageable) {
-        return ResponseEntity.status(HttpStatus.OK).body(this.skillService.fetchAllSkills(spec, pageable));
+            Pageable pageable,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "withTotal", defaultValue = "false") boolean withTotal,
+            WebRequest request) throws IdInvalidException {
+        long lastModified = this.resourceVersionService.lastModified(ResourceVersionService.SKILLS);
+        if (lastModified > 0 && request.checkNotModified(lastModified)) {
+            return null;
+        }
+        return ResponseEntity.status(HttpStatus.OK)
+                .body(this.skillService.fetchAllSkills(spec, pageable, cursor, withTotal));
     }
 }
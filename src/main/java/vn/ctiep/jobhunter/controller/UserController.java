@@ -28,6 +28,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 
 @RestController
 @RequestMapping("api/v1")
@@ -77,9 +78,12 @@ public class UserController {
     @GetMapping("/users")
     @ApiMessage("fetch all users")
     public ResponseEntity<ResultPaginationDTO> getAllUser(@Filter Specification<User> spec,
-            Pageable pageable) {
+            Pageable pageable,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "withTotal", defaultValue = "false") boolean withTotal) throws IdInvalidException {
 
-        return ResponseEntity.status(HttpStatus.CREATED).body(this.userService.fetchAllUser(spec, pageable));
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(this.userService.fetchAllUser(spec, pageable, cursor, withTotal));
     }
 
     @PutMapping("/users")
@@ -15,6 +15,7 @@ import jakarta.persistence.OneToMany;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotBlank;
 import lombok.Getter;
 import lombok.Setter;
@@ -56,6 +57,10 @@ public class Company {
 
     private String updatedBy;
 
+    // tang moi lan cap nhat, dung lam ETag
+    @Version
+    private long version;
+
     private boolean active = true;
 
     @OneToMany(mappedBy = "company", fetch = FetchType.LAZY)
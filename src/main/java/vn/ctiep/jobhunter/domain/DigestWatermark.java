@@ -0,0 +1,46 @@
+package vn.ctiep.jobhunter.domain;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Moc da xu ly cua mot job digest: job duyet sau (approvedAt, jobId) la job moi
+@Entity
+@Table(name = "digest_watermarks")
+@Getter
+@Setter
+@NoArgsConstructor
+public class DigestWatermark {
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    @Column(name = "approved_at")
+    private Instant approvedAt;
+
+    @Column(name = "job_id")
+    private long jobId;
+
+    // fencing token cua lan chay ghi moc (SchedulerLockService.Lease.fence)
+    private long fence;
+
+    private Instant updatedAt;
+
+    public DigestWatermark(String name) {
+        this.name = name;
+    }
+
+    @PrePersist
+    @PreUpdate
+    public void handleBeforeSave() {
+        this.updatedAt = Instant.now();
+    }
+}
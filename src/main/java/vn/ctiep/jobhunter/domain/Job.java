@@ -14,6 +14,7 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
@@ -22,6 +23,7 @@ import jakarta.persistence.OneToMany;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotBlank;
 import lombok.Getter;
 import lombok.Setter;
@@ -30,7 +32,9 @@ import vn.ctiep.jobhunter.util.constant.LevelEnum;
 import vn.ctiep.jobhunter.util.constant.JobStatusEnum;
 
 @Entity
-@Table(name = "jobs")
+@Table(name = "jobs", indexes = {
+        @Index(name = "idx_jobs_approved_at", columnList = "approved_at, id"),
+        @Index(name = "idx_jobs_active_end_date", columnList = "active, end_date, id") })
 @Getter
 @Setter
 public class Job {
@@ -43,6 +47,10 @@ public class Job {
     private String location;
     private double salary;
     private int quantity;
+
+    // so resume HIRED; chi tang/giam bang UPDATE co dieu kien (JobRepository.reserveHire)
+    @Column(name = "hired_count", nullable = false)
+    private int hiredCount;
     @Enumerated(EnumType.STRING)
     private LevelEnum level;
 
@@ -56,11 +64,19 @@ public class Job {
     @Enumerated(EnumType.STRING)
     private JobStatusEnum status = JobStatusEnum.PENDING;
 
+    // thoi diem duyet; email digest chi xet job duyet sau moc lan chay truoc
+    @Column(name = "approved_at")
+    private Instant approvedAt;
+
     private Instant createdAt;
     private Instant updatedAt;
     private String createdBy;
     private String updatedBy;
 
+    // tang moi lan cap nhat, dung lam ETag
+    @Version
+    private long version;
+
     @ManyToOne
     @JoinColumn(name = "company_id")
     private Company company;
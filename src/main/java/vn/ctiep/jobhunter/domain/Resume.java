@@ -8,6 +8,7 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
@@ -20,7 +21,9 @@ import vn.ctiep.jobhunter.util.SecurityUtil;
 import vn.ctiep.jobhunter.util.constant.ResumeStateEnum;
 
 @Entity
-@Table(name = "resumes")
+@Table(name = "resumes", indexes = {
+        @Index(name = "idx_resumes_job_status", columnList = "job_id, status"),
+        @Index(name = "idx_resumes_user_active_created", columnList = "user_id, active, created_at, id") })
 @Getter
 @Setter
 public class Resume {
@@ -0,0 +1,51 @@
+package vn.ctiep.jobhunter.domain;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+
+// Fencing token va lan chay gan nhat cua mot job @SchedulerLock (lock nam tren Redis)
+@Entity
+@Table(name = "scheduled_tasks")
+@Getter
+@Setter
+public class ScheduledTask {
+    @Id
+    @Column(length = 128)
+    private String name;
+
+    @Column(name = "locked_until", nullable = false)
+    private Instant lockedUntil;
+
+    @Column(name = "locked_by")
+    private String lockedBy;
+
+    @Column(name = "fencing_token", nullable = false)
+    private long fencingToken;
+
+    @Column(name = "last_started_at")
+    private Instant lastStartedAt;
+
+    @Column(name = "last_finished_at")
+    private Instant lastFinishedAt;
+
+    @Column(name = "last_status", length = 16)
+    private String lastStatus;
+
+    @Column(name = "last_duration_ms")
+    private Long lastDurationMs;
+
+    @Column(name = "last_node")
+    private String lastNode;
+
+    @Column(name = "last_token")
+    private Long lastToken;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+}
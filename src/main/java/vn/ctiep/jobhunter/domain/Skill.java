@@ -14,6 +14,7 @@ import jakarta.persistence.ManyToMany;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.Getter;
 import lombok.Setter;
 import vn.ctiep.jobhunter.util.SecurityUtil;
@@ -34,6 +35,10 @@ public class Skill {
     private String createdBy;
     private String updatedBy;
 
+    // tang moi lan cap nhat, dung lam ETag
+    @Version
+    private long version;
+
     @ManyToMany(fetch = FetchType.LAZY, mappedBy = "skills")
     @JsonIgnore
     private List<Job> jobs;
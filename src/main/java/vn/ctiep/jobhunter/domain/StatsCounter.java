@@ -0,0 +1,56 @@
+package vn.ctiep.jobhunter.domain;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Mot so dem cua dashboard; cong/tru theo su kien, cac dong cung scope duoc tinh lai va ghi de cung nhau
+@Entity
+@Table(name = "stats_counters", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_stats_counters_scope_key", columnNames = { "scope", "counter_key" }) })
+@Getter
+@Setter
+@NoArgsConstructor
+public class StatsCounter {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+
+    @Column(length = 64, nullable = false)
+    private String scope;
+
+    @Column(name = "counter_key", length = 191, nullable = false)
+    private String counterKey;
+
+    // ten hien thi (company, job) cho cac so dem theo nhom
+    private String label;
+
+    @Column(name = "counter_value", nullable = false)
+    private long counterValue;
+
+    private Instant updatedAt;
+
+    public StatsCounter(String scope, String counterKey, String label, long counterValue) {
+        this.scope = scope;
+        this.counterKey = counterKey;
+        this.label = label;
+        this.counterValue = counterValue;
+    }
+
+    @PrePersist
+    @PreUpdate
+    public void handleBeforeSave() {
+        this.updatedAt = Instant.now();
+    }
+}
@@ -5,11 +5,15 @@ import java.util.List;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
@@ -20,6 +24,7 @@ import jakarta.validation.constraints.NotBlank;
 import lombok.Getter;
 import lombok.Setter;
 import vn.ctiep.jobhunter.util.SecurityUtil;
+import vn.ctiep.jobhunter.util.constant.JobAlertModeEnum;
 
 @Entity
 @Table(name = "subscribers")
@@ -37,6 +42,11 @@ public class Subscriber {
     @NotBlank(message = "Email không được để trống")
     private String email;
 
+    // cach nhan job moi; null = DIGEST
+    @Enumerated(EnumType.STRING)
+    @Column(name = "alert_mode")
+    private JobAlertModeEnum alertMode = JobAlertModeEnum.DIGEST;
+
     private Instant createdAt;
     private Instant updatedAt;
     private String createdBy;
@@ -44,7 +54,9 @@ public class Subscriber {
 
     @ManyToMany(fetch = FetchType.LAZY)
     @JsonIgnoreProperties(value = { "subscribers" })
-    @JoinTable(name = "subscriber_skill", joinColumns = @JoinColumn(name = "subscriber_id"), inverseJoinColumns = @JoinColumn(name = "skill_id"))
+    @JoinTable(name = "subscriber_skill", joinColumns = @JoinColumn(name = "subscriber_id"), inverseJoinColumns = @JoinColumn(name = "skill_id"), indexes = {
+            // chieu nguoc skill -> subscriber cho digest tang dan
+            @Index(name = "idx_subscriber_skill_skill", columnList = "skill_id, subscriber_id") })
     private List<Skill> skills;
 
     @PrePersist
@@ -0,0 +1,19 @@
+package vn.ctiep.jobhunter.domain.event;
+
+import java.util.Collection;
+import java.util.List;
+
+import lombok.Getter;
+
+@Getter
+public class JobChangedEvent {
+    private final Collection<Long> jobIds;
+
+    public JobChangedEvent(long jobId) {
+        this.jobIds = List.of(jobId);
+    }
+
+    public JobChangedEvent(Collection<Long> jobIds) {
+        this.jobIds = List.copyOf(jobIds);
+    }
+}
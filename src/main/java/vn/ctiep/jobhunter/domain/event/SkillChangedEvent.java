@@ -0,0 +1,10 @@
+package vn.ctiep.jobhunter.domain.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class SkillChangedEvent {
+    private final long skillId;
+}
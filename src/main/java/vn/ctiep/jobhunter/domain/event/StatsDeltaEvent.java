@@ -0,0 +1,19 @@
+package vn.ctiep.jobhunter.domain.event;
+
+import java.util.List;
+
+import lombok.Getter;
+
+// Cac so dem dashboard ma mot thao tac lam thay doi; cong vao stats_counters sau khi commit
+@Getter
+public class StatsDeltaEvent {
+    private final List<Delta> deltas;
+
+    public StatsDeltaEvent(List<Delta> deltas) {
+        this.deltas = List.copyOf(deltas);
+    }
+
+    // label khac null: cap nhat ten hien thi (company, job) cua so dem
+    public record Delta(String scope, String key, String label, long delta) {
+    }
+}
@@ -1,5 +1,6 @@
 package vn.ctiep.jobhunter.domain.response;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import lombok.AllArgsConstructor;
@@ -45,6 +46,8 @@ public class ResLoginDTO {
     @Setter
     @AllArgsConstructor
     @NoArgsConstructor
+    // token cu con claim roleId: bo qua (role lay o server, xem PermissionMatrixService)
+    @JsonIgnoreProperties(ignoreUnknown = true)
     public static class UserInsideToken {
         private long id;
         private String email;
@@ -1,5 +1,7 @@
 package vn.ctiep.jobhunter.domain.response;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import lombok.Getter;
 import lombok.Setter;
 
@@ -11,10 +13,15 @@ public class ResultPaginationDTO {
 
     @Getter
     @Setter
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     public static class Meta {
-        private int page;
+        // che do cursor: khong co so trang (null)
+        private Integer page;
         private int pageSize;
-        private int pages;
-        private long total;
+        // che do cursor: chi co khi client gui withTotal=true
+        private Integer pages;
+        private Long total;
+        // cursor cua trang tiep theo, null neu da het du lieu
+        private String nextCursor;
     }
 }
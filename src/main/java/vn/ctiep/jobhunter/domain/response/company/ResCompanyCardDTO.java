@@ -0,0 +1,22 @@
+package vn.ctiep.jobhunter.domain.response.company;
+
+import java.time.Instant;
+
+import lombok.Getter;
+import lombok.Setter;
+
+// Du lieu rut gon cho danh sach company (khong co description, url)
+@Getter
+@Setter
+public class ResCompanyCardDTO {
+    private long id;
+    private String name;
+    private String address;
+    private String taxCode;
+    private String logo;
+    private boolean active;
+    private Instant createdAt;
+    private Instant updatedAt;
+    private String createdBy;
+    private String updatedBy;
+}
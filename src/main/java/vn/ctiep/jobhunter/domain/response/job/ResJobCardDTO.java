@@ -0,0 +1,53 @@
+package vn.ctiep.jobhunter.domain.response.job;
+
+import java.time.Instant;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+import vn.ctiep.jobhunter.util.constant.JobStatusEnum;
+import vn.ctiep.jobhunter.util.constant.LevelEnum;
+
+// Du lieu rut gon cho danh sach job (khong co description)
+@Getter
+@Setter
+public class ResJobCardDTO {
+    private long id;
+    private String name;
+    private String location;
+    private double salary;
+    private int quantity;
+    private LevelEnum level;
+    private Instant startDate;
+    private Instant endDate;
+    private boolean active;
+    private JobStatusEnum status;
+    private Instant createdAt;
+    private Instant updatedAt;
+    private String createdBy;
+    private String updatedBy;
+
+    private CompanyJob company;
+    private List<SkillJob> skills;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CompanyJob {
+        private long id;
+        private String name;
+        private String logo;
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SkillJob {
+        private long id;
+        private String name;
+    }
+}
@@ -0,0 +1,13 @@
+package vn.ctiep.jobhunter.domain.response.job;
+
+import lombok.Getter;
+import lombok.Setter;
+
+// Ket qua tim kiem full-text: card cua job kem diem va doan trich dan da highlight
+@Getter
+@Setter
+public class ResJobSearchDTO extends ResJobCardDTO {
+    private float score;
+    private String highlightName;
+    private String highlightDescription;
+}
@@ -10,6 +10,7 @@ import jakarta.persistence.ManyToOne;
 import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 import vn.ctiep.jobhunter.util.constant.ResumeStateEnum;
 
@@ -17,6 +18,7 @@ import java.time.Instant;
 
 @Getter
 @Setter
+@NoArgsConstructor
 public class ResFetchResumeDTO {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -37,6 +39,24 @@ public class ResFetchResumeDTO {
     private JobResume job;
     private boolean active;
 
+    // projection truc tiep tu JPQL (ResumeRepository.findMyResumes...)
+    public ResFetchResumeDTO(long id, String email, String url, ResumeStateEnum status, Instant createdAt,
+            Instant updatedAt, String createdBy, String updatedBy, boolean active, long userId, String userName,
+            Long jobId, String jobName, String companyName) {
+        this.id = id;
+        this.email = email;
+        this.url = url;
+        this.status = status;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.createdBy = createdBy;
+        this.updatedBy = updatedBy;
+        this.active = active;
+        this.user = new UserResume(userId, userName);
+        this.job = jobId == null ? null : new JobResume(jobId, jobName);
+        this.companyName = companyName;
+    }
+
     @Getter
     @Setter
     @AllArgsConstructor
@@ -13,14 +13,22 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface CompanyRepository extends JpaRepository<Company, Long>, JpaSpecificationExecutor<Company> {
+public interface CompanyRepository extends JpaRepository<Company, Long>, JpaSpecificationExecutor<Company>,
+        CompanyRepositoryCustom {
 
     List<Company> findByActiveTrue();
     
     // Thêm phương thức tìm company đã bị xóa mềm
     Optional<Company> findByIdAndActiveFalse(Long id);
 
+    // update hang loat khong qua @Version nen tu tang version (ETag)
     @Modifying
-    @Query("UPDATE Company c SET c.active = :active WHERE c.id = :id")
+    @Query("UPDATE Company c SET c.active = :active, c.version = c.version + 1 WHERE c.id = :id")
     void updateActiveStatus(@Param("id") Long id, @Param("active") boolean active);
+
+    @Query("SELECT c.version FROM Company c WHERE c.id = :id")
+    Optional<Long> findVersionById(@Param("id") long id);
+
+    @Query("SELECT c.id FROM Company c")
+    List<Long> findAllIds();
 }
@@ -0,0 +1,14 @@
+package vn.ctiep.jobhunter.repository;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+import vn.ctiep.jobhunter.domain.Company;
+import vn.ctiep.jobhunter.domain.response.company.ResCompanyCardDTO;
+
+public interface CompanyRepositoryCustom {
+
+    // Chi select cac cot hien thi tren danh sach, bo qua description va url (MEDIUMTEXT)
+    Page<ResCompanyCardDTO> findCards(Specification<Company> spec, Pageable pageable);
+}
@@ -0,0 +1,97 @@
+package vn.ctiep.jobhunter.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import vn.ctiep.jobhunter.domain.Company;
+import vn.ctiep.jobhunter.domain.response.company.ResCompanyCardDTO;
+
+public class CompanyRepositoryCustomImpl implements CompanyRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<ResCompanyCardDTO> findCards(Specification<Company> spec, Pageable pageable) {
+        CriteriaBuilder cb = this.entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Company> root = query.from(Company.class);
+
+        query.multiselect(
+                root.get("id").alias("id"),
+                root.get("name").alias("name"),
+                root.get("address").alias("address"),
+                root.get("taxCode").alias("taxCode"),
+                root.get("logo").alias("logo"),
+                root.get("active").alias("active"),
+                root.get("createdAt").alias("createdAt"),
+                root.get("updatedAt").alias("updatedAt"),
+                root.get("createdBy").alias("createdBy"),
+                root.get("updatedBy").alias("updatedBy"));
+
+        if (spec != null) {
+            // filter join sang collection (vd. jobs) lam trung dong: loc id trong subquery
+            Subquery<Long> ids = query.subquery(Long.class);
+            Root<Company> filtered = ids.from(Company.class);
+            Predicate predicate = spec.toPredicate(filtered, query, cb);
+            if (predicate != null) {
+                ids.select(filtered.get("id")).where(predicate);
+                query.where(root.get("id").in(ids));
+            }
+            query.distinct(false);
+        }
+        if (pageable.getSort().isSorted()) {
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+        }
+
+        TypedQuery<Tuple> typedQuery = this.entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+
+        List<ResCompanyCardDTO> content = typedQuery.getResultList().stream().map(t -> {
+            ResCompanyCardDTO card = new ResCompanyCardDTO();
+            card.setId(t.get("id", Long.class));
+            card.setName(t.get("name", String.class));
+            card.setAddress(t.get("address", String.class));
+            card.setTaxCode(t.get("taxCode", String.class));
+            card.setLogo(t.get("logo", String.class));
+            card.setActive(t.get("active", Boolean.class));
+            card.setCreatedAt(t.get("createdAt", Instant.class));
+            card.setUpdatedAt(t.get("updatedAt", Instant.class));
+            card.setCreatedBy(t.get("createdBy", String.class));
+            card.setUpdatedBy(t.get("updatedBy", String.class));
+            return card;
+        }).toList();
+
+        return PageableExecutionUtils.getPage(content, pageable, () -> this.count(spec));
+    }
+
+    private long count(Specification<Company> spec) {
+        CriteriaBuilder cb = this.entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Company> root = query.from(Company.class);
+        Predicate predicate = spec == null ? null : spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(cb.countDistinct(root));
+        return this.entityManager.createQuery(query).getSingleResult();
+    }
+}
@@ -0,0 +1,28 @@
+package vn.ctiep.jobhunter.repository;
+
+import java.time.Instant;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import vn.ctiep.jobhunter.domain.DigestWatermark;
+
+@Repository
+public interface DigestWatermarkRepository extends JpaRepository<DigestWatermark, String> {
+
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO digest_watermarks (name, job_id, fence) VALUES (:name, 0, 0)",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("name") String name);
+
+    // chi tien moc len, va chi khi khong co lan chay nao moi hon (fence lon hon) da ghi
+    @Modifying
+    @Query("UPDATE DigestWatermark w SET w.approvedAt = :approvedAt, w.jobId = :jobId, w.fence = :fence, "
+            + "w.updatedAt = :now WHERE w.name = :name AND w.fence <= :fence AND (w.approvedAt IS NULL "
+            + "OR w.approvedAt < :approvedAt OR (w.approvedAt = :approvedAt AND w.jobId < :jobId))")
+    int advance(@Param("name") String name, @Param("approvedAt") Instant approvedAt, @Param("jobId") long jobId,
+            @Param("fence") long fence, @Param("now") Instant now);
+}
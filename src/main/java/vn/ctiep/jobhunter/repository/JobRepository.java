@@ -1,9 +1,12 @@
 package vn.ctiep.jobhunter.repository;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -19,15 +22,91 @@ import java.util.Optional;
 
 @Repository
 public interface JobRepository extends JpaRepository<Job, Long>,
-                JpaSpecificationExecutor<Job> {
+                JpaSpecificationExecutor<Job>, JobRepositoryCustom {
+
+        // convertToResJobCardDTO() tren duong keyset: company nap cung trang,
+        // skills (collection) nap theo lo qua default_batch_fetch_size
+        List<String> CARD_GRAPH = List.of("company");
 
         List<Job> findBySkillsInAndActiveTrue(List<Skill> skills);
         List<Job> findByActiveTrue();
         List<Job> findByEndDateBeforeAndActiveTrue(Instant now);
+
+        // id job het han con active sau afterId, trong mot phan (MOD id) de nhieu node chia nhau xu ly
+        @Query("SELECT j.id FROM Job j WHERE j.active = true AND j.endDate < :now AND j.id > :afterId "
+                        + "AND MOD(j.id, :partitions) = :partition ORDER BY j.id")
+        List<Long> findExpiredActiveIds(@Param("now") Instant now, @Param("afterId") long afterId,
+                        @Param("partitions") int partitions, @Param("partition") int partition, Pageable pageable);
+
+        // update hang loat khong qua @Version nen tu tang version (ETag)
+        @Modifying
+        @Query("UPDATE Job j SET j.active = false, j.version = j.version + 1, j.updatedAt = :now "
+                        + "WHERE j.id IN :ids AND j.active = true AND j.endDate < :now")
+        int deactivateExpiredByIdIn(@Param("ids") Collection<Long> ids, @Param("now") Instant now);
         List<Job> findByCompanyAndActiveTrue(Company company);
 
         Optional<Job> findByIdAndActiveFalse(Long id);
 
+        @Query("SELECT DISTINCT j FROM Job j LEFT JOIN FETCH j.company LEFT JOIN FETCH j.skills WHERE j.active = true")
+        List<Job> findActiveWithCompanyAndSkills();
+
+        // job duyet sau moc (approvedAt, id) va truoc until, theo thu tu duyet
+        @Query("SELECT DISTINCT j FROM Job j LEFT JOIN FETCH j.company LEFT JOIN FETCH j.skills "
+                        + "WHERE j.active = true AND j.approvedAt <= :until AND (j.approvedAt > :afterAt "
+                        + "OR (j.approvedAt = :afterAt AND j.id > :afterId)) ORDER BY j.approvedAt, j.id")
+        List<Job> findApprovedAfter(@Param("afterAt") Instant afterAt, @Param("afterId") long afterId,
+                        @Param("until") Instant until);
+
+        @Query("SELECT DISTINCT j FROM Job j LEFT JOIN FETCH j.company LEFT JOIN FETCH j.skills WHERE j.id IN :ids")
+        List<Job> findWithCompanyAndSkillsByIdIn(@Param("ids") Collection<Long> ids);
+
+        // version cua job, company va tong version skill: doi khi bat ky phan nao cua trang chi tiet doi
+        @Query("SELECT j.version, c.version, COALESCE(SUM(s.version), 0), COUNT(s) FROM Job j "
+                        + "LEFT JOIN j.company c LEFT JOIN j.skills s WHERE j.id = :id GROUP BY j.id, j.version, c.version")
+        List<Object[]> findVersionStampById(@Param("id") long id);
+
+        // job active da tuyen du (so resume HIRED >= quantity), mot cau GROUP BY cho ca catalog
+        @Query("SELECT j.id FROM Job j JOIN j.resumes r WHERE j.active = true AND r.active = true "
+                        + "AND r.status = vn.ctiep.jobhunter.util.constant.ResumeStateEnum.HIRED "
+                        + "GROUP BY j.id, j.quantity HAVING COUNT(r) >= j.quantity")
+        List<Long> findActiveHiredFullIds();
+
+        @Modifying
+        @Query("UPDATE Job j SET j.active = false, j.version = j.version + 1, j.updatedAt = :now "
+                        + "WHERE j.id IN :ids AND j.active = true AND j.hiredCount >= j.quantity")
+        int deactivateHiredFullByIdIn(@Param("ids") Collection<Long> ids, @Param("now") Instant now);
+
+        // giu mot suat tuyen: 1 neu con suat, 0 neu da du (nguyen tu, khong can khoa/COUNT)
+        @Modifying
+        @Query("UPDATE Job j SET j.hiredCount = j.hiredCount + 1, j.version = j.version + 1 "
+                        + "WHERE j.id = :id AND j.hiredCount < j.quantity")
+        int reserveHire(@Param("id") long id);
+
+        // tra suat khi resume roi khoi trang thai HIRED
+        @Modifying
+        @Query("UPDATE Job j SET j.hiredCount = j.hiredCount - 1, j.version = j.version + 1 "
+                        + "WHERE j.id = :id AND j.hiredCount > 0")
+        int releaseHire(@Param("id") long id);
+
+        // dong job neu da tuyen du; 0 neu chua du hoac da dong
+        @Modifying
+        @Query("UPDATE Job j SET j.active = false, j.version = j.version + 1, j.updatedAt = :now "
+                        + "WHERE j.id = :id AND j.active = true AND j.hiredCount >= j.quantity")
+        int deactivateIfHiredFull(@Param("id") long id, @Param("now") Instant now);
+
+        // nang hired_count len bang so resume HIRED (chua xoa) thuc te (vd. du lieu cu truoc khi co cot).
+        // Chi tang: subquery doc snapshot nen co the thieu resume dang HIRED chua commit,
+        // ha xuong luc do se cho tuyen vuot quantity
+        @Modifying
+        @Query(value = "UPDATE jobs j LEFT JOIN (SELECT job_id, COUNT(*) AS hired FROM resumes "
+                        + "WHERE status = 'HIRED' AND active = 1 GROUP BY job_id) h ON h.job_id = j.id "
+                        + "SET j.hired_count = COALESCE(h.hired, 0), j.version = j.version + 1 "
+                        + "WHERE j.hired_count < COALESCE(h.hired, 0)", nativeQuery = true)
+        int reconcileHiredCounts();
+
+        @Query("SELECT j.id FROM Job j WHERE j.company.id = :companyId")
+        List<Long> findIdsByCompanyId(@Param("companyId") Long companyId);
+
         @Query("SELECT COUNT(j) FROM Job j WHERE j.company.id = :companyId")
         long countByCompanyId(@Param("companyId") Long companyId);
 
@@ -50,4 +129,18 @@ public interface JobRepository extends JpaRepository<Job, Long>,
         List<Map<String, Object>> countActiveJobsByCompany();
 
         long countByStatus(JobStatusEnum status);
+
+        long countByCompanyIdAndActiveTrue(Long companyId);
+
+        // (company id, ten company, so job active) cho dashboard
+        @Query("SELECT c.id, c.name, COUNT(j) FROM Job j JOIN j.company c WHERE j.active = true GROUP BY c.id, c.name")
+        List<Object[]> countActiveByCompany();
+
+        // nhu tren, chi trong cac job ids (truoc khi tat hang loat)
+        @Query("SELECT c.id, c.name, COUNT(j) FROM Job j JOIN j.company c "
+                        + "WHERE j.id IN :ids AND j.active = true GROUP BY c.id, c.name")
+        List<Object[]> countActiveByCompanyIn(@Param("ids") Collection<Long> ids);
+
+        @Query("SELECT DISTINCT j.company.id FROM Job j WHERE j.id IN :ids AND j.company IS NOT NULL")
+        List<Long> findCompanyIdsByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,14 @@
+package vn.ctiep.jobhunter.repository;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+import vn.ctiep.jobhunter.domain.Job;
+import vn.ctiep.jobhunter.domain.response.job.ResJobCardDTO;
+
+public interface JobRepositoryCustom {
+
+    // Chi select cac cot hien thi tren danh sach, bo qua description (MEDIUMTEXT)
+    Page<ResJobCardDTO> findCards(Specification<Job> spec, Pageable pageable);
+}
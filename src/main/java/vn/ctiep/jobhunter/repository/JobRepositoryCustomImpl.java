@@ -0,0 +1,140 @@
+package vn.ctiep.jobhunter.repository;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import vn.ctiep.jobhunter.domain.Company;
+import vn.ctiep.jobhunter.domain.Job;
+import vn.ctiep.jobhunter.domain.response.job.ResJobCardDTO;
+import vn.ctiep.jobhunter.util.constant.JobStatusEnum;
+import vn.ctiep.jobhunter.util.constant.LevelEnum;
+
+public class JobRepositoryCustomImpl implements JobRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<ResJobCardDTO> findCards(Specification<Job> spec, Pageable pageable) {
+        CriteriaBuilder cb = this.entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Job> root = query.from(Job.class);
+        Join<Job, Company> company = root.join("company", JoinType.LEFT);
+
+        query.multiselect(
+                root.get("id").alias("id"),
+                root.get("name").alias("name"),
+                root.get("location").alias("location"),
+                root.get("salary").alias("salary"),
+                root.get("quantity").alias("quantity"),
+                root.get("level").alias("level"),
+                root.get("startDate").alias("startDate"),
+                root.get("endDate").alias("endDate"),
+                root.get("active").alias("active"),
+                root.get("status").alias("status"),
+                root.get("createdAt").alias("createdAt"),
+                root.get("updatedAt").alias("updatedAt"),
+                root.get("createdBy").alias("createdBy"),
+                root.get("updatedBy").alias("updatedBy"),
+                company.get("id").alias("companyId"),
+                company.get("name").alias("companyName"),
+                company.get("logo").alias("companyLogo"));
+
+        if (spec != null) {
+            // filter co the join skills (nhieu dong moi job): loc id trong subquery de
+            // trang phan tren job rieng biet, khong phai tren dong da join
+            Subquery<Long> ids = query.subquery(Long.class);
+            Root<Job> filtered = ids.from(Job.class);
+            Predicate predicate = spec.toPredicate(filtered, query, cb);
+            if (predicate != null) {
+                ids.select(filtered.get("id")).where(predicate);
+                query.where(root.get("id").in(ids));
+            }
+            query.distinct(false);
+        }
+        if (pageable.getSort().isSorted()) {
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+        }
+
+        TypedQuery<Tuple> typedQuery = this.entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+
+        List<ResJobCardDTO> content = new ArrayList<>();
+        Map<Long, ResJobCardDTO> byId = new HashMap<>();
+        for (Tuple t : typedQuery.getResultList()) {
+            ResJobCardDTO card = new ResJobCardDTO();
+            card.setId(t.get("id", Long.class));
+            card.setName(t.get("name", String.class));
+            card.setLocation(t.get("location", String.class));
+            card.setSalary(t.get("salary", Double.class));
+            card.setQuantity(t.get("quantity", Integer.class));
+            card.setLevel(t.get("level", LevelEnum.class));
+            card.setStartDate(t.get("startDate", Instant.class));
+            card.setEndDate(t.get("endDate", Instant.class));
+            card.setActive(t.get("active", Boolean.class));
+            card.setStatus(t.get("status", JobStatusEnum.class));
+            card.setCreatedAt(t.get("createdAt", Instant.class));
+            card.setUpdatedAt(t.get("updatedAt", Instant.class));
+            card.setCreatedBy(t.get("createdBy", String.class));
+            card.setUpdatedBy(t.get("updatedBy", String.class));
+            Long companyId = t.get("companyId", Long.class);
+            if (companyId != null) {
+                card.setCompany(new ResJobCardDTO.CompanyJob(companyId,
+                        t.get("companyName", String.class), t.get("companyLogo", String.class)));
+            }
+            card.setSkills(new ArrayList<>());
+            content.add(card);
+            byId.put(card.getId(), card);
+        }
+
+        if (!byId.isEmpty()) {
+            // nap ten skill cua ca trang trong mot truy van
+            List<Object[]> skills = this.entityManager.createQuery(
+                    "SELECT j.id, s.id, s.name FROM Job j JOIN j.skills s WHERE j.id IN :ids", Object[].class)
+                    .setParameter("ids", byId.keySet())
+                    .getResultList();
+            for (Object[] row : skills) {
+                byId.get((Long) row[0]).getSkills()
+                        .add(new ResJobCardDTO.SkillJob((Long) row[1], (String) row[2]));
+            }
+        }
+
+        return PageableExecutionUtils.getPage(content, pageable, () -> this.count(spec));
+    }
+
+    private long count(Specification<Job> spec) {
+        CriteriaBuilder cb = this.entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Job> root = query.from(Job.class);
+        Predicate predicate = spec == null ? null : spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        // dem job rieng biet ke ca khi filter join skills
+        query.select(cb.countDistinct(root));
+        return this.entityManager.createQuery(query).getSingleResult();
+    }
+}
@@ -1,14 +1,22 @@
 package vn.ctiep.jobhunter.repository;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import vn.ctiep.jobhunter.domain.Resume;
+import vn.ctiep.jobhunter.domain.response.resume.ResFetchResumeDTO;
 import vn.ctiep.jobhunter.util.constant.ResumeStateEnum;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -16,9 +24,50 @@ import java.util.Optional;
 @Repository
 public interface ResumeRepository extends JpaRepository<Resume, Long>, JpaSpecificationExecutor<Resume> {
 
+    // getResume() can user, job va job.company cho moi dong
+    @Override
+    @EntityGraph(attributePaths = { "user", "job", "job.company" })
+    Page<Resume> findAll(Specification<Resume> spec, Pageable pageable);
+
+    // cung do thi cho duong keyset (findBy)
+    List<String> LISTING_GRAPH = List.of("user", "job", "job.company");
+
+    // "resume cua toi": quet mot khoang cua idx_resumes_user_active_created, moi nhat truoc
+    String MY_RESUMES_SELECT = "SELECT new vn.ctiep.jobhunter.domain.response.resume.ResFetchResumeDTO("
+            + "r.id, r.email, r.url, r.status, r.createdAt, r.updatedAt, r.createdBy, r.updatedBy, r.active, "
+            + "u.id, u.name, j.id, j.name, c.name) "
+            + "FROM Resume r JOIN r.user u LEFT JOIN r.job j LEFT JOIN j.company c "
+            + "WHERE r.user.id = :userId AND r.active = true ";
+
+    @Query(value = MY_RESUMES_SELECT + "ORDER BY r.createdAt DESC, r.id DESC",
+            countQuery = "SELECT COUNT(r) FROM Resume r WHERE r.user.id = :userId AND r.active = true")
+    Page<ResFetchResumeDTO> findMyResumes(@Param("userId") long userId, Pageable pageable);
+
+    // trang sau cursor (createdAt, id)
+    @Query(MY_RESUMES_SELECT + "AND (r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id)) "
+            + "ORDER BY r.createdAt DESC, r.id DESC")
+    List<ResFetchResumeDTO> findMyResumesAfter(@Param("userId") long userId, @Param("createdAt") Instant createdAt,
+            @Param("id") long id, Pageable pageable);
+
+    long countByUserIdAndActiveTrue(long userId);
+
     long countByJobIdAndStatus(Long jobId, ResumeStateEnum status);
     boolean existsByUserIdAndJobId(Long userId, Long jobId);
     List<Resume> findByJobIdAndActiveTrue(Long jobId);
+
+    // doi trang thai neu resume van dang o trang thai expected; 0 neu request khac da doi truoc
+    @Modifying
+    @Query("UPDATE Resume r SET r.status = :status, r.updatedAt = :now WHERE r.id = :id "
+        + "AND (r.status = :expected OR (r.status IS NULL AND :expected IS NULL))")
+    int updateStatusIfCurrent(@Param("id") long id, @Param("expected") ResumeStateEnum expected,
+            @Param("status") ResumeStateEnum status, @Param("now") Instant now);
+
+    // vo hieu hoa resume dang cho xu ly cua mot lo job (het han)
+    @Modifying
+    @Query("UPDATE Resume r SET r.active = false, r.updatedAt = :now "
+        + "WHERE r.job.id IN (SELECT j.id FROM Job j WHERE j.id IN :jobIds AND j.endDate < :now) "
+        + "AND r.active = true AND r.status = vn.ctiep.jobhunter.util.constant.ResumeStateEnum.PENDING")
+    int deactivatePendingByJobIdIn(@Param("jobIds") Collection<Long> jobIds, @Param("now") Instant now);
     List<Resume> findByJobId(Long jobId);
     Optional<Resume> findByIdAndActiveFalse(Long id);
     
@@ -37,4 +86,6 @@ public interface ResumeRepository extends JpaRepository<Resume, Long>, JpaSpecif
 
     @Query("SELECT COUNT(r) FROM Resume r WHERE r.job.company.id = :companyId")
     long countByCompanyId(@Param("companyId") Long companyId);
+
+    long countByJobId(Long jobId);
     }
@@ -0,0 +1,29 @@
+package vn.ctiep.jobhunter.repository;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import vn.ctiep.jobhunter.domain.Job;
+import vn.ctiep.jobhunter.domain.Resume;
+
+// Dieu kien dung lai cho cac danh sach resume
+public final class ResumeSpecifications {
+
+    private ResumeSpecifications() {
+    }
+
+    /**
+     * Resume ung tuyen vao job cua mot company: job_id IN (SELECT id FROM jobs WHERE
+     * company_id = ?). Mot tham so du company co bao nhieu job; MySQL di tu chi muc
+     * company_id cua jobs sang idx_resumes_job_status cua resumes.
+     */
+    public static Specification<Resume> inCompany(long companyId) {
+        return (root, query, cb) -> {
+            Subquery<Long> jobIds = query.subquery(Long.class);
+            Root<Job> job = jobIds.from(Job.class);
+            jobIds.select(job.get("id")).where(cb.equal(job.get("company").get("id"), companyId));
+            return root.get("job").get("id").in(jobIds);
+        };
+    }
+}
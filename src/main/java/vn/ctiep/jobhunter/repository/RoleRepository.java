@@ -1,7 +1,10 @@
 package vn.ctiep.jobhunter.repository;
 
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import vn.ctiep.jobhunter.domain.Role;
@@ -12,4 +15,8 @@ public interface RoleRepository extends JpaRepository<Role, Long>,
     boolean existsByName(String name);
 
     Role findByName(String name);
+
+    // (role id, method, api path) cua tat ca quyen, dung dung ma tran phan quyen
+    @Query("SELECT r.id, p.method, p.apiPath FROM Role r JOIN r.permissions p")
+    List<Object[]> findAllPermissionRules();
 }
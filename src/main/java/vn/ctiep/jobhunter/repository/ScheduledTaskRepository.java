@@ -0,0 +1,39 @@
+package vn.ctiep.jobhunter.repository;
+
+import java.time.Instant;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import vn.ctiep.jobhunter.domain.ScheduledTask;
+
+@Repository
+public interface ScheduledTaskRepository extends JpaRepository<ScheduledTask, String> {
+
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO scheduled_tasks (name, locked_until, fencing_token) "
+            + "VALUES (:name, '1970-01-01 00:00:00', 0)", nativeQuery = true)
+    int insertIfAbsent(@Param("name") String name);
+
+    // cap fencing token moi cho lan chay vua lay lock Redis; ghi lai node giu lock (de xem)
+    @Modifying
+    @Query(value = "UPDATE scheduled_tasks SET locked_until = :until, locked_by = :node, "
+            + "fencing_token = fencing_token + 1 WHERE name = :name", nativeQuery = true)
+    int nextFencingToken(@Param("name") String name, @Param("node") String node, @Param("until") Instant until);
+
+    @Query(value = "SELECT fencing_token FROM scheduled_tasks WHERE name = :name", nativeQuery = true)
+    long findFencingToken(@Param("name") String name);
+
+    // lan chay bat dau truoc lan da ghi (node giu lock qua han) khong ghi de
+    @Modifying
+    @Query(value = "UPDATE scheduled_tasks SET last_started_at = :startedAt, last_finished_at = :finishedAt, "
+            + "last_status = :status, last_duration_ms = :durationMs, last_node = :node, last_token = :token, "
+            + "last_error = :error WHERE name = :name AND (last_started_at IS NULL OR last_started_at <= :startedAt)",
+            nativeQuery = true)
+    int recordRun(@Param("name") String name, @Param("node") String node, @Param("token") long token,
+            @Param("startedAt") Instant startedAt, @Param("finishedAt") Instant finishedAt,
+            @Param("status") String status, @Param("durationMs") long durationMs, @Param("error") String error);
+}
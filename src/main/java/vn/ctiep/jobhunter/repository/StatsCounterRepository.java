@@ -0,0 +1,39 @@
+package vn.ctiep.jobhunter.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import vn.ctiep.jobhunter.domain.StatsCounter;
+
+@Repository
+public interface StatsCounterRepository extends JpaRepository<StatsCounter, Long> {
+    List<StatsCounter> findByScope(String scope);
+
+    @Modifying
+    @Query("DELETE FROM StatsCounter s WHERE s.scope = :scope")
+    int deleteByScope(@Param("scope") String scope);
+
+    boolean existsByScope(String scope);
+
+    @Modifying
+    @Query("UPDATE StatsCounter s SET s.counterValue = s.counterValue + :delta, "
+            + "s.label = COALESCE(:label, s.label), s.updatedAt = :now "
+            + "WHERE s.scope = :scope AND s.counterKey = :key")
+    int increment(@Param("scope") String scope, @Param("key") String key, @Param("label") String label,
+            @Param("delta") long delta, @Param("now") Instant now);
+
+    // nhu increment nhung tao dong neu chua co (trang thai resume / job dau tien cua scope)
+    @Modifying
+    @Query(value = "INSERT INTO stats_counters (scope, counter_key, label, counter_value, updated_at) "
+            + "VALUES (:scope, :key, :label, :delta, :now) "
+            + "ON DUPLICATE KEY UPDATE counter_value = counter_value + :delta, "
+            + "label = COALESCE(:label, label), updated_at = :now", nativeQuery = true)
+    int upsertIncrement(@Param("scope") String scope, @Param("key") String key, @Param("label") String label,
+            @Param("delta") long delta, @Param("now") Instant now);
+}
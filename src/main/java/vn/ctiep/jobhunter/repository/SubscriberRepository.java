@@ -1,10 +1,17 @@
 package vn.ctiep.jobhunter.repository;
 
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import vn.ctiep.jobhunter.domain.Subscriber;
+import vn.ctiep.jobhunter.util.constant.JobAlertModeEnum;
 
 @Repository
 public interface SubscriberRepository extends JpaRepository<Subscriber, Long>,
@@ -13,4 +20,25 @@ public interface SubscriberRepository extends JpaRepository<Subscriber, Long>,
     boolean existsByEmail(String email);
 
     Subscriber findByEmail(String email);
+
+    // duyet subscriber theo id (keyset) chi lay cot can cho email digest;
+    // subscriber nhan email ngay (alertMode = EMAIL) van o day: job da gui ngay bi loc qua SentJobStore
+    @Query("SELECT s.id, s.email, s.name FROM Subscriber s WHERE s.id > :afterId ORDER BY s.id")
+    List<Object[]> findDigestPage(@Param("afterId") long afterId, Pageable pageable);
+
+    // subscriber quan tam mot trong cac skill (di tu skill qua idx_subscriber_skill_skill)
+    @Query("SELECT DISTINCT s.id, s.email, s.name FROM Subscriber s JOIN s.skills k "
+            + "WHERE k.id IN :skillIds AND s.id > :afterId ORDER BY s.id")
+    List<Object[]> findDigestPageBySkillIdIn(@Param("skillIds") Collection<Long> skillIds,
+            @Param("afterId") long afterId, Pageable pageable);
+
+    @Query("SELECT s.id, k.id FROM Subscriber s JOIN s.skills k WHERE s.id IN :ids")
+    List<Object[]> findSkillIdsBySubscriberIdIn(@Param("ids") Collection<Long> ids);
+
+    // (subscriber id, skill id) cua cac subscriber nhan thong bao ngay
+    @Query("SELECT s.id, k.id FROM Subscriber s JOIN s.skills k WHERE s.alertMode IN :modes")
+    List<Object[]> findSkillIdsByAlertModeIn(@Param("modes") Collection<JobAlertModeEnum> modes);
+
+    @Query("SELECT s.id, s.email, s.name, s.alertMode FROM Subscriber s WHERE s.id IN :ids")
+    List<Object[]> findAlertTargetsByIdIn(@Param("ids") Collection<Long> ids);
 }
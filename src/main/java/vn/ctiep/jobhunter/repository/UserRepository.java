@@ -1,5 +1,9 @@
 package vn.ctiep.jobhunter.repository;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
@@ -10,6 +14,7 @@ import vn.ctiep.jobhunter.domain.Company;
 import vn.ctiep.jobhunter.domain.User;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -17,11 +22,24 @@ import java.util.Optional;
 @Repository
 public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificationExecutor<User> {
 
+    // convertToResUserDTO() can company va role cho moi dong
+    @Override
+    @EntityGraph(attributePaths = { "company", "role" })
+    Page<User> findAll(Specification<User> spec, Pageable pageable);
+
+    // cung do thi cho duong keyset (findBy)
+    List<String> LISTING_GRAPH = List.of("company", "role");
+
     User findByEmail(String email);
 
-    boolean existsByEmail(String emmail);
+    // role hien tai cua user, rong neu khong co user / role (PermissionMatrixService)
+    @Query("SELECT r.id FROM User u JOIN u.role r WHERE u.id = :id")
+    Optional<Long> findRoleIdById(@Param("id") long id);
 
-    User findByRefreshTokenAndEmail(String token, String email);
+    @Query("SELECT u.id, u.email FROM User u WHERE u.email IN :emails")
+    List<Object[]> findIdsByEmailIn(@Param("emails") Collection<String> emails);
+
+    boolean existsByEmail(String emmail);
 
     List<User> findByCompany(Company company);
 
@@ -1,5 +1,6 @@
 package vn.ctiep.jobhunter.service;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
@@ -7,16 +8,23 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
 
+import vn.ctiep.jobhunter.config.CacheConfig;
 import vn.ctiep.jobhunter.domain.Company;
 import vn.ctiep.jobhunter.domain.User;
 import vn.ctiep.jobhunter.domain.Job;
+import vn.ctiep.jobhunter.domain.event.CompanyChangedEvent;
+import vn.ctiep.jobhunter.domain.event.JobChangedEvent;
 import vn.ctiep.jobhunter.util.annotation.OnUpdate;
 import vn.ctiep.jobhunter.domain.response.ResultPaginationDTO;
+import vn.ctiep.jobhunter.domain.response.company.ResCompanyCardDTO;
 import vn.ctiep.jobhunter.repository.CompanyRepository;
 import vn.ctiep.jobhunter.repository.UserRepository;
 import vn.ctiep.jobhunter.repository.JobRepository;
+import vn.ctiep.jobhunter.util.KeysetPaginationUtil;
+import vn.ctiep.jobhunter.util.error.IdInvalidException;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.ArrayList;
 import jakarta.persistence.EntityManager;
@@ -28,22 +36,35 @@ public class CompanyService {
     private final CompanyRepository companyRepository;
     private final UserRepository userRepository;
     private final JobRepository jobRepository;
+    private final ReadCacheService readCacheService;
+    private final ApplicationEventPublisher eventPublisher;
     
     @PersistenceContext
     private EntityManager entityManager;
 
-    public CompanyService(CompanyRepository companyRepository, UserRepository userRepository, JobRepository jobRepository) {
+    public CompanyService(CompanyRepository companyRepository, UserRepository userRepository, JobRepository jobRepository,
+            ReadCacheService readCacheService, ApplicationEventPublisher eventPublisher) {
         this.companyRepository = companyRepository;
         this.userRepository = userRepository;
         this.jobRepository = jobRepository;
+        this.readCacheService = readCacheService;
+        this.eventPublisher = eventPublisher;
     }
 
     public Company handleCreateCompany(Company c) {
-        return this.companyRepository.save(c);
+        Company company = this.companyRepository.save(c);
+        this.eventPublisher.publishEvent(new CompanyChangedEvent(company.getId()));
+        this.eventPublisher.publishEvent(StatsCounterService.companyCreated());
+        return company;
     }
 
-    public ResultPaginationDTO handleGetCompany(Specification<Company> spec, Pageable pageable) {
-        Page<Company> pageCompany = this.companyRepository.findAll(spec, pageable);
+    public ResultPaginationDTO handleGetCompany(Specification<Company> spec, Pageable pageable, String cursor,
+            boolean withTotal) throws IdInvalidException {
+        if (cursor != null) {
+            return KeysetPaginationUtil.fetch(this.companyRepository, spec, cursor, pageable, withTotal,
+                    this::convertToResCompanyCardDTO);
+        }
+        Page<ResCompanyCardDTO> pageCompany = this.companyRepository.findCards(spec, pageable);
         ResultPaginationDTO rs = new ResultPaginationDTO();
         ResultPaginationDTO.Meta mt = new ResultPaginationDTO.Meta();
 
@@ -58,18 +79,39 @@ public class CompanyService {
         return rs;
     }
 
+    public ResCompanyCardDTO convertToResCompanyCardDTO(Company company) {
+        ResCompanyCardDTO res = new ResCompanyCardDTO();
+        res.setId(company.getId());
+        res.setName(company.getName());
+        res.setAddress(company.getAddress());
+        res.setTaxCode(company.getTaxCode());
+        res.setLogo(company.getLogo());
+        res.setActive(company.isActive());
+        res.setCreatedAt(company.getCreatedAt());
+        res.setUpdatedAt(company.getUpdatedAt());
+        res.setCreatedBy(company.getCreatedBy());
+        res.setUpdatedBy(company.getUpdatedBy());
+        return res;
+    }
+
     @Validated(OnUpdate.class)
     public Company handleUpdateCompany(Company c) {
         Optional<Company> optionalCompany = this.companyRepository.findById(c.getId());
         if (optionalCompany.isPresent()) {
             Company currentCompany = optionalCompany.get();
+            String previousName = currentCompany.getName();
             currentCompany.setLogo(c.getLogo());
             currentCompany.setName(c.getName());
             currentCompany.setDescription(c.getDescription());
             currentCompany.setAddress(c.getAddress());
             currentCompany.setTaxCode(c.getTaxCode());
             currentCompany.setUrl(c.getUrl());
-            return this.companyRepository.save(currentCompany);
+            currentCompany = this.companyRepository.save(currentCompany);
+            this.eventPublisher.publishEvent(new CompanyChangedEvent(currentCompany.getId()));
+            if (!Objects.equals(previousName, currentCompany.getName())) {
+                this.eventPublisher.publishEvent(StatsCounterService.companyRenamed(currentCompany));
+            }
+            return currentCompany;
         }
         return null;
     }
@@ -84,13 +126,20 @@ public class CompanyService {
             
             // 1. Xóa mềm tất cả Jobs của company
             if (com.getJobs() != null) {
+                long deactivated = 0;
                 for (Job job : com.getJobs()) {
+                    if (job.isActive()) {
+                        deactivated++;
+                    }
                     job.setActive(false);
                     jobsToUpdate.add(job);
                 }
                 if (!jobsToUpdate.isEmpty()) {
                     jobRepository.saveAll(jobsToUpdate);
                     entityManager.flush();
+                    this.eventPublisher.publishEvent(new JobChangedEvent(
+                            jobsToUpdate.stream().map(Job::getId).toList()));
+                    this.eventPublisher.publishEvent(StatsCounterService.activeJobsChanged(com, -deactivated));
                 }
             }
             
@@ -108,6 +157,7 @@ public class CompanyService {
             // 3. Xóa mềm company
             companyRepository.updateActiveStatus(id, false);
             entityManager.flush();
+            this.eventPublisher.publishEvent(new CompanyChangedEvent(id));
         }
     }
 
@@ -115,6 +165,12 @@ public class CompanyService {
         return this.companyRepository.findById(id);
     }
 
+    // Trang chi tiet cong khai: doc qua cache, tra ve ban sao tach roi
+    public Optional<Company> fetchCompanyDetail(long id) throws IdInvalidException {
+        return Optional.ofNullable(this.readCacheService.getOrLoad(CacheConfig.COMPANY_DETAIL, String.valueOf(id),
+                () -> this.companyRepository.findById(id).map(JobIndexService::detachedCopyOf).orElse(null)));
+    }
+
     @Transactional
     public Company restoreCompany(long id) {
         Optional<Company> companyOptional = this.companyRepository.findByIdAndActiveFalse(id);
@@ -125,12 +181,19 @@ public class CompanyService {
             
             // 1. Khôi phục tất cả Jobs của company
             if (company.getJobs() != null) {
+                long activated = 0;
                 for (Job job : company.getJobs()) {
+                    if (!job.isActive()) {
+                        activated++;
+                    }
                     job.setActive(true);
                     jobsToUpdate.add(job);
                 }
                 if (!jobsToUpdate.isEmpty()) {
                     jobRepository.saveAll(jobsToUpdate);
+                    this.eventPublisher.publishEvent(new JobChangedEvent(
+                            jobsToUpdate.stream().map(Job::getId).toList()));
+                    this.eventPublisher.publishEvent(StatsCounterService.activeJobsChanged(company, activated));
                 }
             }
             
@@ -146,7 +209,9 @@ public class CompanyService {
             
             // 3. Khôi phục company
             company.setActive(true);
-            return this.companyRepository.save(company);
+            company = this.companyRepository.save(company);
+            this.eventPublisher.publishEvent(new CompanyChangedEvent(company.getId()));
+            return company;
         }
         return null;
     }
@@ -0,0 +1,137 @@
+package vn.ctiep.jobhunter.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.HtmlUtils;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import vn.ctiep.jobhunter.domain.Job;
+import vn.ctiep.jobhunter.domain.Skill;
+import vn.ctiep.jobhunter.domain.response.email.ResEmailJob;
+
+/**
+ * Render email digest job ma khong chay lai template cho tung subscriber.
+ *
+ * The HTML cua moi job (job-card.html) render mot lan va giu trong bo nho theo
+ * job id + phien ban template; phan khung (job.html) render mot lan thanh cac doan
+ * co dinh. Email cua moi subscriber chi la noi chuoi: khung + ten + cac the job.
+ *
+ * Key gom ca @Version cua job, company va skill: sua o node nao thi node khac cung
+ * doc duoc version moi tu DB va khong dung lai the cu, khong can phat lenh xoa cache.
+ */
+@Service
+public class DigestEmailRenderer {
+    private static final Logger logger = LoggerFactory.getLogger(DigestEmailRenderer.class);
+
+    private static final String LAYOUT_TEMPLATE = "job";
+    private static final String CARD_TEMPLATE = "job-card";
+
+    // gia tri gia de cat khung thanh cac doan; khong chua ky tu can escape
+    private static final String NAME_MARKER = "__DIGEST_NAME__";
+    private static final String JOBS_MARKER = "<!--__DIGEST_JOBS__-->";
+
+    private final SpringTemplateEngine templateEngine;
+
+    // key: <phien ban template>:<job id>:<version job, company, skill>
+    private final Cache<String, String> fragments = Caffeine.newBuilder()
+            .maximumSize(20_000)
+            .expireAfterWrite(Duration.ofDays(1))
+            .build();
+
+    private final String templateVersion;
+    private volatile Layout layout;
+
+    public DigestEmailRenderer(SpringTemplateEngine templateEngine) {
+        this.templateEngine = templateEngine;
+        this.templateVersion = templateVersion();
+    }
+
+    private record Layout(String head, String middle, String tail) {
+    }
+
+    /**
+     * The HTML cua mot job (company, skills da nap), render lan dau va lay tu cache cac
+     * lan sau. card chi duoc tao khi chua co trong cache.
+     */
+    public String jobFragment(Job job, Supplier<ResEmailJob> card) {
+        return this.fragments.get(this.key(job), k -> {
+            Context context = new Context();
+            context.setVariable("job", card.get());
+            return this.templateEngine.process(CARD_TEMPLATE, Set.of("card"), context).trim();
+        });
+    }
+
+    private String key(Job job) {
+        long companyVersion = job.getCompany() == null ? -1 : job.getCompany().getVersion();
+        // doi danh sach skill thi version job tang; sua mot skill thi tong nay tang
+        long skillVersions = 0;
+        if (job.getSkills() != null) {
+            for (Skill skill : job.getSkills()) {
+                skillVersions += skill.getVersion();
+            }
+        }
+        return this.templateVersion + ":" + job.getId() + ":" + job.getVersion() + "." + companyVersion + "."
+                + skillVersions;
+    }
+
+    // Ghep email cho mot subscriber tu cac the da render
+    public String assemble(String name, List<String> jobFragments) {
+        Layout current = this.layout();
+        StringBuilder html = new StringBuilder(current.head().length() + current.middle().length()
+                + current.tail().length() + jobFragments.size() * 1024);
+        html.append(current.head())
+                .append(HtmlUtils.htmlEscape(name == null ? "" : name, "UTF-8"))
+                .append(current.middle());
+        for (String fragment : jobFragments) {
+            html.append(fragment);
+        }
+        return html.append(current.tail()).toString();
+    }
+
+    private Layout layout() {
+        Layout current = this.layout;
+        if (current == null) {
+            Context context = new Context();
+            context.setVariable("name", NAME_MARKER);
+            context.setVariable("jobsHtml", JOBS_MARKER);
+            String html = this.templateEngine.process(LAYOUT_TEMPLATE, context);
+            int name = html.indexOf(NAME_MARKER);
+            int jobs = html.indexOf(JOBS_MARKER);
+            if (name < 0 || jobs < name) {
+                throw new IllegalStateException("Template " + LAYOUT_TEMPLATE + " has no name/jobs placeholders");
+            }
+            current = new Layout(html.substring(0, name),
+                    html.substring(name + NAME_MARKER.length(), jobs),
+                    html.substring(jobs + JOBS_MARKER.length()));
+            this.layout = current;
+        }
+        return current;
+    }
+
+    // CRC cua 2 file template: ban deploy doi template khong dung lai the cu
+    private static String templateVersion() {
+        CRC32 crc = new CRC32();
+        for (String template : List.of(LAYOUT_TEMPLATE, CARD_TEMPLATE)) {
+            try (InputStream in = new ClassPathResource("templates/" + template + ".html").getInputStream()) {
+                crc.update(in.readAllBytes());
+            } catch (IOException e) {
+                logger.warn("Could not read template {} for versioning", template, e);
+            }
+        }
+        return Long.toHexString(crc.getValue());
+    }
+}
@@ -0,0 +1,185 @@
+package vn.ctiep.jobhunter.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.mail.internet.MimeMessage;
+import vn.ctiep.jobhunter.domain.EmailOutbox;
+import vn.ctiep.jobhunter.repository.EmailOutboxRepository;
+import vn.ctiep.jobhunter.util.constant.EmailOutboxStatusEnum;
+
+/**
+ * Outbox cho email giao dich.
+ *
+ * enqueue() chi insert mot dong trong transaction cua nguoi goi: thay doi nghiep vu
+ * va email cung commit hoac cung rollback. Dispatcher chay nen, nhan tung lo dong den
+ * han trong mot transaction ngan (FOR UPDATE SKIP LOCKED, doi next_attempt_at ra sau
+ * lease-seconds de node khac khong lay trung), gui qua lan uu tien cua
+ * MailDeliveryService ngoai transaction, roi ghi ket qua tung dong trong transaction
+ * rieng. Loi thi hen gui lai voi backoff; node chet giua chung thi het lease dong tu
+ * duoc gui lai. Dong chi danh dau SENT sau khi SMTP nhan thu nen moi email duoc gui
+ * it nhat mot lan.
+ */
+@Service
+public class EmailOutboxService {
+    private static final Logger logger = LoggerFactory.getLogger(EmailOutboxService.class);
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final EmailService emailService;
+    private final MailDeliveryService mailDeliveryService;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${ctiep.outbox.batch-size:20}")
+    private int batchSize;
+
+    @Value("${ctiep.outbox.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${ctiep.outbox.backoff-seconds:30}")
+    private long backoffSeconds;
+
+    // thoi gian giu dong da nhan; qua han ma chua ghi ket qua thi gui lai
+    @Value("${ctiep.outbox.lease-seconds:300}")
+    private long leaseSeconds;
+
+    public EmailOutboxService(EmailOutboxRepository emailOutboxRepository, EmailService emailService,
+            MailDeliveryService mailDeliveryService, TransactionTemplate transactionTemplate,
+            ObjectMapper objectMapper) {
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.emailService = emailService;
+        this.mailDeliveryService = mailDeliveryService;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    // Phai goi trong transaction cua thay doi nghiep vu
+    @Transactional(propagation = Propagation.MANDATORY)
+    public EmailOutbox enqueue(String to, String subject, String template, Map<String, Object> variables) {
+        EmailOutbox email = new EmailOutbox();
+        email.setRecipient(to);
+        email.setSubject(subject);
+        email.setTemplate(template);
+        try {
+            email.setPayload(this.objectMapper.writeValueAsString(variables));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Email variables are not serializable", e);
+        }
+        return this.emailOutboxRepository.save(email);
+    }
+
+    @Scheduled(fixedDelayString = "${ctiep.outbox.poll-interval-ms:2000}")
+    public void dispatch() {
+        // lo day thi lay tiep (sau khi lo truoc gui xong), khong cho den lan poll sau
+        int claimed;
+        do {
+            claimed = this.dispatchBatch();
+        } while (claimed >= this.batchSize);
+    }
+
+    private int dispatchBatch() {
+        // 1. nhan lo trong transaction ngan, khong giu khoa trong luc gui
+        List<EmailOutbox> rows = this.transactionTemplate.execute(status -> {
+            Instant now = Instant.now();
+            List<EmailOutbox> due = this.emailOutboxRepository.claimDue(now, this.batchSize);
+            due.forEach(row -> row.setNextAttemptAt(now.plusSeconds(this.leaseSeconds)));
+            return due;
+        });
+        if (rows == null || rows.isEmpty()) {
+            return 0;
+        }
+
+        // 2. gui ngoai transaction, ghi ket qua tung dong khi co
+        List<CompletableFuture<Void>> sending = new ArrayList<>();
+        for (EmailOutbox row : rows) {
+            CompletableFuture<Void> result;
+            try {
+                Map<String, Object> variables = this.objectMapper.readValue(row.getPayload(),
+                        new TypeReference<Map<String, Object>>() {
+                        });
+                MimeMessage message = this.emailService.buildTemplateMessage(row.getRecipient(), row.getSubject(),
+                        row.getTemplate(), variables);
+                result = this.mailDeliveryService.submitPriority(message);
+            } catch (Exception e) {
+                result = CompletableFuture.failedFuture(e);
+            }
+            long id = row.getId();
+            sending.add(result.handle((ok, e) -> {
+                this.record(id, e instanceof CompletionException ? e.getCause() : e);
+                return null;
+            }));
+        }
+
+        // 3. cho lo gui xong truoc khi nhan lo tiep
+        try {
+            CompletableFuture.allOf(sending.toArray(CompletableFuture[]::new)).get(this.leaseSeconds,
+                    TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        } catch (ExecutionException | TimeoutException e) {
+            logger.warn("Email outbox batch did not finish within {} s", this.leaseSeconds);
+            return 0;
+        }
+        return rows.size();
+    }
+
+    // ghi ket qua gui trong transaction rieng; error null = da gui
+    private void record(long id, Throwable error) {
+        try {
+            this.transactionTemplate.executeWithoutResult(status -> this.emailOutboxRepository.findById(id)
+                    .filter(row -> row.getStatus() == EmailOutboxStatusEnum.PENDING)
+                    .ifPresent(row -> {
+                        if (error == null) {
+                            row.setStatus(EmailOutboxStatusEnum.SENT);
+                            row.setAttempts(row.getAttempts() + 1);
+                            row.setSentAt(Instant.now());
+                            row.setLastError(null);
+                        } else {
+                            this.markFailedAttempt(row, error, Instant.now());
+                        }
+                    }));
+        } catch (RuntimeException e) {
+            // het lease thi dong duoc gui lai
+            logger.error("Could not record result of email outbox {}", id, e);
+        }
+    }
+
+    private void markFailedAttempt(EmailOutbox row, Throwable error, Instant now) {
+        int attempts = row.getAttempts() + 1;
+        row.setAttempts(attempts);
+        String message = String.valueOf(error);
+        row.setLastError(message.length() > 1000 ? message.substring(0, 1000) : message);
+        if (attempts >= this.maxAttempts) {
+            row.setStatus(EmailOutboxStatusEnum.FAILED);
+            logger.error("Email outbox {} to {} failed after {} attempts", row.getId(), row.getRecipient(), attempts,
+                    error);
+        } else {
+            // backoff tang gap doi: 30s, 60s, 120s...
+            row.setNextAttemptAt(now.plus(Duration.ofSeconds(this.backoffSeconds << (attempts - 1))));
+            logger.warn("Email outbox {} to {} failed (attempt {}): {}", row.getId(), row.getRecipient(), attempts,
+                    message);
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package vn.ctiep.jobhunter.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import vn.ctiep.jobhunter.domain.Job;
+import vn.ctiep.jobhunter.domain.event.JobApprovedEvent;
+import vn.ctiep.jobhunter.domain.event.SubscriberChangedEvent;
+import vn.ctiep.jobhunter.domain.response.NotificationDTO;
+import vn.ctiep.jobhunter.repository.JobRepository;
+import vn.ctiep.jobhunter.repository.SubscriberRepository;
+import vn.ctiep.jobhunter.repository.UserRepository;
+import vn.ctiep.jobhunter.util.constant.JobAlertModeEnum;
+
+/**
+ * Thong bao ngay khi job duoc duyet.
+ *
+ * Giu san chi muc skill -> subscriber id tren Redis (set job_alert:skill:<id>), chi
+ * gom subscriber chon EMAIL hoac WEBSOCKET, cap nhat moi khi subscriber thay doi.
+ * Sau khi transaction duyet job commit, SUNION cac skill cua job cho ra nguoi nhan:
+ * chi cham toi subscriber cua cac skill do, khong quet ca bang subscriber.
+ *
+ * Email gui ngay chi ghi vao SentJobStore khi da gui thanh cong; digest loc theo
+ * SentJobStore nen job da nhan khong lap lai, con job gui loi van co trong digest.
+ */
+@Service
+public class JobAlertService {
+    private static final Logger logger = LoggerFactory.getLogger(JobAlertService.class);
+
+    private static final String SKILL_KEY = "job_alert:skill:";
+    // skill da index cua moi subscriber, de go khi subscriber doi skill
+    private static final String SUBSCRIBER_KEY = "job_alert:subscriber:";
+    private static final String BUILT_KEY = "job_alert:built";
+
+    private static final List<JobAlertModeEnum> INSTANT_MODES = List.of(JobAlertModeEnum.EMAIL,
+            JobAlertModeEnum.WEBSOCKET);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final SubscriberRepository subscriberRepository;
+    private final JobRepository jobRepository;
+    private final UserRepository userRepository;
+    private final SubscriberService subscriberService;
+    private final DigestEmailRenderer digestEmailRenderer;
+    private final EmailService emailService;
+    private final WebSocketService webSocketService;
+    private final SentJobStore sentJobStore;
+
+    @Value("${ctiep.job-alert.enabled:true}")
+    private boolean enabled;
+
+    @Value("${ctiep.job-alert.batch-size:500}")
+    private int batchSize;
+
+    public JobAlertService(StringRedisTemplate stringRedisTemplate, SubscriberRepository subscriberRepository,
+            JobRepository jobRepository, UserRepository userRepository, SubscriberService subscriberService,
+            DigestEmailRenderer digestEmailRenderer, EmailService emailService,
+            WebSocketService webSocketService, SentJobStore sentJobStore) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.subscriberRepository = subscriberRepository;
+        this.jobRepository = jobRepository;
+        this.userRepository = userRepository;
+        this.subscriberService = subscriberService;
+        this.digestEmailRenderer = digestEmailRenderer;
+        this.emailService = emailService;
+        this.webSocketService = webSocketService;
+        this.sentJobStore = sentJobStore;
+    }
+
+    @Async
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onJobApproved(JobApprovedEvent event) {
+        if (!this.enabled) {
+            return;
+        }
+        try {
+            this.ensureIndex();
+            List<Job> jobs = this.jobRepository.findWithCompanyAndSkillsByIdIn(List.of(event.getJobId()));
+            if (jobs.isEmpty() || !jobs.get(0).isActive() || jobs.get(0).getSkills() == null
+                    || jobs.get(0).getSkills().isEmpty()) {
+                return;
+            }
+            Job job = jobs.get(0);
+
+            List<String> skillKeys = job.getSkills().stream().map(skill -> SKILL_KEY + skill.getId()).toList();
+            Set<String> members = this.stringRedisTemplate.opsForSet().union(skillKeys);
+            if (members == null || members.isEmpty()) {
+                return;
+            }
+            List<Long> subscriberIds = members.stream().map(Long::valueOf).sorted().toList();
+            for (int from = 0; from < subscriberIds.size(); from += this.batchSize) {
+                this.notifyBatch(job, subscriberIds.subList(from, Math.min(from + this.batchSize,
+                        subscriberIds.size())));
+            }
+            logger.info("Job {} approved: alerted {} subscribers", job.getId(), subscriberIds.size());
+        } catch (RuntimeException e) {
+            // job van co trong email digest
+            logger.error("Could not send instant alerts for job {}", event.getJobId(), e);
+        }
+    }
+
+    // ghi nhan job da gui cho nguoi nhan thanh cong, digest se bo qua job nay voi ho
+    private void markSentWhenDelivered(long jobId, Map<String, CompletableFuture<Void>> sending) {
+        CompletableFuture.allOf(sending.values().toArray(CompletableFuture[]::new)).whenComplete((ok, e) -> {
+            Map<String, List<Long>> delivered = new HashMap<>();
+            sending.forEach((email, delivery) -> {
+                if (!delivery.isCompletedExceptionally()) {
+                    delivered.put(email, List.of(jobId));
+                }
+            });
+            try {
+                if (!delivered.isEmpty()) {
+                    this.sentJobStore.markSent(delivered);
+                }
+            } catch (RuntimeException ex) {
+                logger.error("Could not mark job {} as sent to {} subscribers", jobId, delivered.size(), ex);
+            }
+        });
+    }
+
+    private void notifyBatch(Job job, List<Long> subscriberIds) {
+        List<Object[]> targets = this.subscriberRepository.findAlertTargetsByIdIn(subscriberIds);
+        List<String> pushEmails = new ArrayList<>();
+        Map<String, CompletableFuture<Void>> sending = new HashMap<>();
+        for (Object[] row : targets) {
+            String email = (String) row[1];
+            if (row[3] == JobAlertModeEnum.EMAIL) {
+                String card = this.digestEmailRenderer.jobFragment(job,
+                        () -> this.subscriberService.convertJobToSendEmail(job));
+                sending.put(email, this.emailService.sendEmailSync(email,
+                        "Việc làm mới phù hợp với bạn: " + job.getName(),
+                        this.digestEmailRenderer.assemble((String) row[2], List.of(card)), false, true));
+            } else if (row[3] == JobAlertModeEnum.WEBSOCKET) {
+                pushEmails.add(email);
+            }
+        }
+        if (!sending.isEmpty()) {
+            this.markSentWhenDelivered(job.getId(), sending);
+        }
+        if (pushEmails.isEmpty()) {
+            return;
+        }
+        // thong bao trong app gui theo user co cung email voi subscriber
+        for (Object[] row : this.userRepository.findIdsByEmailIn(pushEmails)) {
+            NotificationDTO notification = new NotificationDTO();
+            notification.setType("NEW_JOB");
+            notification.setMessage("Có việc làm mới phù hợp với kỹ năng của bạn: " + job.getName());
+            notification.setJobName(job.getName());
+            notification.setCompanyName(job.getCompany() != null ? job.getCompany().getName() : null);
+            notification.setUserId((Long) row[0]);
+            notification.setTimestamp(new Date());
+            this.webSocketService.sendNotificationToUser((Long) row[0], notification);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSubscriberChanged(SubscriberChangedEvent event) {
+        try {
+            this.reindex(event.getSubscriberId());
+        } catch (RuntimeException e) {
+            logger.warn("Could not update job alert index for subscriber {}", event.getSubscriberId(), e);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        try {
+            this.ensureIndex();
+        } catch (RuntimeException e) {
+            logger.warn("Could not build job alert index", e);
+        }
+    }
+
+    // Cap nhat chi muc cua mot subscriber theo du lieu hien tai trong DB
+    private void reindex(long subscriberId) {
+        Set<Long> skillIds = new HashSet<>();
+        boolean instant = this.subscriberRepository.findAlertTargetsByIdIn(List.of(subscriberId)).stream()
+                .anyMatch(row -> INSTANT_MODES.contains(row[3]));
+        if (instant) {
+            for (Object[] row : this.subscriberRepository.findSkillIdsBySubscriberIdIn(List.of(subscriberId))) {
+                skillIds.add((Long) row[1]);
+            }
+        }
+        Set<String> previous = this.stringRedisTemplate.opsForSet().members(SUBSCRIBER_KEY + subscriberId);
+
+        byte[] member = bytes(String.valueOf(subscriberId));
+        byte[] subscriberKey = bytes(SUBSCRIBER_KEY + subscriberId);
+        this.stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            if (previous != null) {
+                for (String skillId : previous) {
+                    if (!skillIds.contains(Long.valueOf(skillId))) {
+                        connection.setCommands().sRem(bytes(SKILL_KEY + skillId), member);
+                    }
+                }
+            }
+            connection.keyCommands().del(subscriberKey);
+            for (Long skillId : skillIds) {
+                connection.setCommands().sAdd(bytes(SKILL_KEY + skillId), member);
+                connection.setCommands().sAdd(subscriberKey, bytes(String.valueOf(skillId)));
+            }
+            return null;
+        });
+    }
+
+    // Dung lai toan bo chi muc khi Redis chua co (lan dau, hoac Redis bi xoa).
+    // SADD lap lai khong sao nen nhieu node cung dung cung duoc
+    private void ensureIndex() {
+        if (Boolean.TRUE.equals(this.stringRedisTemplate.hasKey(BUILT_KEY))) {
+            return;
+        }
+        Map<Long, List<Long>> subscribersBySkill = new HashMap<>();
+        Map<Long, List<Long>> skillsBySubscriber = new HashMap<>();
+        for (Object[] row : this.subscriberRepository.findSkillIdsByAlertModeIn(INSTANT_MODES)) {
+            subscribersBySkill.computeIfAbsent((Long) row[1], k -> new ArrayList<>()).add((Long) row[0]);
+            skillsBySubscriber.computeIfAbsent((Long) row[0], k -> new ArrayList<>()).add((Long) row[1]);
+        }
+        this.stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            subscribersBySkill.forEach((skillId, ids) -> connection.setCommands()
+                    .sAdd(bytes(SKILL_KEY + skillId), members(ids)));
+            skillsBySubscriber.forEach((subscriberId, ids) -> connection.setCommands()
+                    .sAdd(bytes(SUBSCRIBER_KEY + subscriberId), members(ids)));
+            return null;
+        });
+        this.stringRedisTemplate.opsForValue().set(BUILT_KEY, "1");
+        logger.info("Built job alert index: {} skills, {} subscribers", subscribersBySkill.size(),
+                skillsBySubscriber.size());
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[][] members(List<Long> ids) {
+        byte[][] members = new byte[ids.size()][];
+        for (int i = 0; i < ids.size(); i++) {
+            members[i] = bytes(String.valueOf(ids.get(i)));
+        }
+        return members;
+    }
+}
@@ -0,0 +1,680 @@
+package vn.ctiep.jobhunter.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.turkraft.springfilter.converter.FilterSpecification;
+import com.turkraft.springfilter.definition.FilterInfixOperator;
+import com.turkraft.springfilter.language.AndOperator;
+import com.turkraft.springfilter.language.EqualOperator;
+import com.turkraft.springfilter.language.GreaterThanOperator;
+import com.turkraft.springfilter.language.GreaterThanOrEqualOperator;
+import com.turkraft.springfilter.language.InOperator;
+import com.turkraft.springfilter.language.LessThanOperator;
+import com.turkraft.springfilter.language.LessThanOrEqualOperator;
+import com.turkraft.springfilter.language.OrOperator;
+import com.turkraft.springfilter.parser.node.CollectionNode;
+import com.turkraft.springfilter.parser.node.FieldNode;
+import com.turkraft.springfilter.parser.node.FilterNode;
+import com.turkraft.springfilter.parser.node.InfixOperationNode;
+import com.turkraft.springfilter.parser.node.InputNode;
+import com.turkraft.springfilter.parser.node.PriorityNode;
+
+import vn.ctiep.jobhunter.domain.Company;
+import vn.ctiep.jobhunter.domain.Job;
+import vn.ctiep.jobhunter.domain.Skill;
+import vn.ctiep.jobhunter.domain.event.CompanyChangedEvent;
+import vn.ctiep.jobhunter.domain.event.JobChangedEvent;
+import vn.ctiep.jobhunter.domain.event.SkillChangedEvent;
+import vn.ctiep.jobhunter.repository.JobRepository;
+import vn.ctiep.jobhunter.util.constant.JobStatusEnum;
+import vn.ctiep.jobhunter.util.constant.LevelEnum;
+
+/**
+ * Chi muc trong bo nho cua cac job dang active, dung de tra loi GET /api/v1/jobs
+ * ma khong can truy van MySQL.
+ *
+ * Moi job duoc gan mot slot (so nguyen), moi gia tri skill/level/status/location/
+ * khoang luong giu mot BitSet cac slot. Cac filter thong dung duoc dich thanh phep
+ * giao/hop BitSet; filter nao khong ho tro thi tra ve Optional.empty() de goi
+ * lai Specification nhu cu.
+ *
+ * refresh doc DB va ghi vao chi muc trong cung refreshLock (tim kiem khong bi chan) nen
+ * ban doc sau luon duoc ghi sau. rebuild bat co rebuilding trong lock do roi nap lai
+ * cac job thay doi trong luc dung, de anh chup cu khong de len thay doi moi hon.
+ */
+@Service
+public class JobIndexService implements CommandLineRunner {
+    private static final Logger logger = LoggerFactory.getLogger(JobIndexService.class);
+
+    private final JobRepository jobRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private final Set<Long> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+
+    @Value("${ctiep.job-index.enabled:true}")
+    private boolean enabled;
+
+    @Value("${ctiep.job-index.salary-band:5000000}")
+    private double salaryBand;
+
+    private volatile Postings postings;
+    private volatile boolean rebuilding;
+
+    public JobIndexService(JobRepository jobRepository) {
+        this.jobRepository = jobRepository;
+    }
+
+    @Override
+    public void run(String... args) {
+        if (this.enabled) {
+            this.rebuild();
+        }
+    }
+
+    // Dong bo lai toan bo chi muc, phong truong hop bo sot thay doi
+    @Scheduled(fixedDelayString = "${ctiep.job-index.rebuild-interval-ms:300000}",
+            initialDelayString = "${ctiep.job-index.rebuild-interval-ms:300000}")
+    public void rebuild() {
+        if (!this.enabled) {
+            return;
+        }
+        // refresh dang chay (doc truoc anh chup) xong truoc; refresh sau do duoc ghi lai
+        refreshLock.lock();
+        try {
+            this.rebuilding = true;
+            this.changedDuringRebuild.clear();
+        } finally {
+            refreshLock.unlock();
+        }
+        try {
+            Postings fresh = new Postings(this.salaryBand);
+            for (Job job : this.jobRepository.findActiveWithCompanyAndSkills()) {
+                fresh.add(copyOf(job));
+            }
+            lock.writeLock().lock();
+            try {
+                this.postings = fresh;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            logger.info("Job index rebuilt with {} active jobs", fresh.size());
+        } finally {
+            this.rebuilding = false;
+        }
+        if (!this.changedDuringRebuild.isEmpty()) {
+            List<Long> ids = new ArrayList<>(this.changedDuringRebuild);
+            this.changedDuringRebuild.removeAll(ids);
+            this.refresh(ids);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onJobChanged(JobChangedEvent event) {
+        this.refresh(event.getJobIds());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onCompanyChanged(CompanyChangedEvent event) {
+        this.refresh(this.indexedJobIds(p -> p.jobIdsOfCompany(event.getCompanyId())));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onSkillChanged(SkillChangedEvent event) {
+        this.refresh(this.indexedJobIds(p -> p.jobIdsOfSkill(event.getSkillId())));
+    }
+
+    private List<Long> indexedJobIds(Function<Postings, List<Long>> lookup) {
+        lock.readLock().lock();
+        try {
+            return this.postings == null ? List.of() : lookup.apply(this.postings);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void refresh(Collection<Long> jobIds) {
+        if (!this.enabled || jobIds.isEmpty()) {
+            return;
+        }
+        refreshLock.lock();
+        try {
+            if (this.rebuilding) {
+                this.changedDuringRebuild.addAll(jobIds);
+            }
+            List<Job> fresh = this.jobRepository.findWithCompanyAndSkillsByIdIn(jobIds);
+            lock.writeLock().lock();
+            try {
+                if (this.postings == null) {
+                    return;
+                }
+                for (Long id : jobIds) {
+                    this.postings.remove(id);
+                }
+                for (Job job : fresh) {
+                    if (job.isActive()) {
+                        this.postings.add(copyOf(job));
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /**
+     * Tra loi truy van tu chi muc. Chi ho tro filter co "active:true" ket hop (and)
+     * voi skills/level/location/status (: hoac in) va khoang luong, sap xep theo
+     * createdAt hoac id.
+     */
+    public Optional<Page<Job>> search(Specification<Job> spec, Pageable pageable) {
+        if (!this.enabled || this.postings == null || pageable.isUnpaged()
+                || !(spec instanceof FilterSpecification<Job> filterSpec)) {
+            return Optional.empty();
+        }
+        Criteria criteria = new Criteria();
+        if (!criteria.accept(filterSpec.getFilter()) || !criteria.activeOnly) {
+            return Optional.empty();
+        }
+        Comparator<Job> comparator = comparatorOf(pageable.getSort());
+        if (comparator == null) {
+            return Optional.empty();
+        }
+
+        List<Job> matched;
+        lock.readLock().lock();
+        try {
+            matched = this.postings.match(criteria);
+        } finally {
+            lock.readLock().unlock();
+        }
+        matched.sort(comparator);
+
+        int total = matched.size();
+        int from = (int) Math.min(pageable.getOffset(), total);
+        int to = Math.min(from + pageable.getPageSize(), total);
+
+        return Optional.of(new PageImpl<>(new ArrayList<>(matched.subList(from, to)), pageable, total));
+    }
+
+    private static Comparator<Job> comparatorOf(Sort sort) {
+        Comparator<Job> comparator = null;
+        for (Sort.Order order : sort) {
+            Comparator<Job> next;
+            if (order.getProperty().equals("createdAt")) {
+                next = Comparator.comparing(Job::getCreatedAt, Comparator.nullsFirst(Comparator.naturalOrder()));
+            } else if (order.getProperty().equals("id")) {
+                next = Comparator.comparingLong(Job::getId);
+            } else {
+                return null;
+            }
+            if (order.isDescending()) {
+                next = next.reversed();
+            }
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        Comparator<Job> byId = Comparator.comparingLong(Job::getId);
+        return comparator == null ? byId : comparator.thenComparing(byId);
+    }
+
+    // MySQL dung collation utf8mb4_unicode_ci: khong phan biet hoa thuong va dau
+    static String normalizeLocation(String location) {
+        if (location == null) {
+            return "";
+        }
+        String s = Normalizer.normalize(location.trim(), Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .replace('đ', 'd')
+                .replace('Đ', 'D');
+        return s.toLowerCase(Locale.ROOT);
+    }
+
+    // Tao ban sao tach roi khoi persistence context de giu trong bo nho.
+    // Danh sach chi tra ve card nen khong giu description/url (MEDIUMTEXT)
+    static Job copyOf(Job source) {
+        return copyOf(source, false);
+    }
+
+    // Ban sao day du (ca description/url) cho cache trang chi tiet
+    public static Job detachedCopyOf(Job source) {
+        return copyOf(source, true);
+    }
+
+    public static Company detachedCopyOf(Company source) {
+        return copyOf(source, true);
+    }
+
+    private static Job copyOf(Job source, boolean withText) {
+        Job job = new Job();
+        job.setId(source.getId());
+        job.setName(source.getName());
+        job.setLocation(source.getLocation());
+        job.setSalary(source.getSalary());
+        job.setQuantity(source.getQuantity());
+        job.setLevel(source.getLevel());
+        job.setStartDate(source.getStartDate());
+        job.setEndDate(source.getEndDate());
+        job.setActive(source.isActive());
+        job.setStatus(source.getStatus());
+        job.setApprovedAt(source.getApprovedAt());
+        job.setHiredCount(source.getHiredCount());
+        job.setCreatedAt(source.getCreatedAt());
+        job.setUpdatedAt(source.getUpdatedAt());
+        job.setCreatedBy(source.getCreatedBy());
+        job.setUpdatedBy(source.getUpdatedBy());
+        job.setVersion(source.getVersion());
+
+        if (withText) {
+            job.setDescription(source.getDescription());
+        }
+        if (source.getCompany() != null) {
+            job.setCompany(copyOf(source.getCompany(), withText));
+        }
+
+        List<Skill> skills = new ArrayList<>();
+        if (source.getSkills() != null) {
+            for (Skill sourceSkill : source.getSkills()) {
+                Skill skill = new Skill();
+                skill.setId(sourceSkill.getId());
+                skill.setName(sourceSkill.getName());
+                skill.setCreatedAt(sourceSkill.getCreatedAt());
+                skill.setUpdatedAt(sourceSkill.getUpdatedAt());
+                skill.setCreatedBy(sourceSkill.getCreatedBy());
+                skill.setUpdatedBy(sourceSkill.getUpdatedBy());
+                skill.setVersion(sourceSkill.getVersion());
+                skills.add(skill);
+            }
+        }
+        job.setSkills(skills);
+        return job;
+    }
+
+    private static Company copyOf(Company source, boolean withText) {
+        Company company = new Company();
+        company.setId(source.getId());
+        company.setName(source.getName());
+        company.setAddress(source.getAddress());
+        company.setTaxCode(source.getTaxCode());
+        company.setLogo(source.getLogo());
+        company.setCreatedAt(source.getCreatedAt());
+        company.setUpdatedAt(source.getUpdatedAt());
+        company.setCreatedBy(source.getCreatedBy());
+        company.setUpdatedBy(source.getUpdatedBy());
+        company.setVersion(source.getVersion());
+        company.setActive(source.isActive());
+        if (withText) {
+            company.setDescription(source.getDescription());
+            company.setUrl(source.getUrl());
+        }
+        return company;
+    }
+
+    /**
+     * Dieu kien truy van da dich tu cay filter. null nghia la khong rang buoc.
+     */
+    static class Criteria {
+        boolean activeOnly;
+        Set<Long> skillIds;
+        Set<LevelEnum> levels;
+        Set<JobStatusEnum> statuses;
+        Set<String> locations;
+        double minSalary = Double.NEGATIVE_INFINITY;
+        boolean minInclusive = true;
+        double maxSalary = Double.POSITIVE_INFINITY;
+        boolean maxInclusive = true;
+
+        boolean accept(FilterNode node) {
+            if (node instanceof PriorityNode priority) {
+                return accept(priority.getNode());
+            }
+            if (!(node instanceof InfixOperationNode operation)) {
+                return false;
+            }
+            FilterInfixOperator operator = operation.getOperator();
+            if (operator instanceof AndOperator) {
+                return accept(operation.getLeft()) && accept(operation.getRight());
+            }
+            if (operator instanceof OrOperator) {
+                return acceptUnion(operation);
+            }
+            if (!(operation.getLeft() instanceof FieldNode field)) {
+                return false;
+            }
+            String name = field.getName();
+            if (name.equals("salary")) {
+                return acceptSalary(operator, operation.getRight());
+            }
+            if (name.equals("active")) {
+                if (operator instanceof EqualOperator && operation.getRight() instanceof InputNode input
+                        && "true".equals(String.valueOf(input.getValue()))) {
+                    this.activeOnly = true;
+                    return true;
+                }
+                return false;
+            }
+            List<String> values = valuesOf(operator, operation.getRight());
+            return values != null && restrict(name, values);
+        }
+
+        // (level:'A' or level:'B') => level in ['A','B']
+        private boolean acceptUnion(InfixOperationNode operation) {
+            List<InfixOperationNode> leaves = new ArrayList<>();
+            if (!collectOrLeaves(operation, leaves)) {
+                return false;
+            }
+            String name = null;
+            List<String> values = new ArrayList<>();
+            for (InfixOperationNode leaf : leaves) {
+                if (!(leaf.getLeft() instanceof FieldNode field)) {
+                    return false;
+                }
+                if (name != null && !name.equals(field.getName())) {
+                    return false;
+                }
+                name = field.getName();
+                List<String> leafValues = valuesOf(leaf.getOperator(), leaf.getRight());
+                if (leafValues == null) {
+                    return false;
+                }
+                values.addAll(leafValues);
+            }
+            return name != null && restrict(name, values);
+        }
+
+        private static boolean collectOrLeaves(FilterNode node, List<InfixOperationNode> leaves) {
+            if (node instanceof PriorityNode priority) {
+                return collectOrLeaves(priority.getNode(), leaves);
+            }
+            if (!(node instanceof InfixOperationNode operation)) {
+                return false;
+            }
+            if (operation.getOperator() instanceof OrOperator) {
+                return collectOrLeaves(operation.getLeft(), leaves) && collectOrLeaves(operation.getRight(), leaves);
+            }
+            leaves.add(operation);
+            return true;
+        }
+
+        private static List<String> valuesOf(FilterInfixOperator operator, FilterNode right) {
+            if (operator instanceof EqualOperator && right instanceof InputNode input && input.getValue() != null) {
+                return List.of(String.valueOf(input.getValue()));
+            }
+            if (operator instanceof InOperator && right instanceof CollectionNode collection) {
+                List<String> values = new ArrayList<>();
+                for (FilterNode item : collection.getItems()) {
+                    if (!(item instanceof InputNode input) || input.getValue() == null) {
+                        return null;
+                    }
+                    values.add(String.valueOf(input.getValue()));
+                }
+                return values;
+            }
+            return null;
+        }
+
+        private boolean restrict(String field, List<String> values) {
+            try {
+                switch (field) {
+                    case "skills":
+                    case "skills.id":
+                        this.skillIds = intersect(this.skillIds, values, Long::valueOf, HashSet::new);
+                        return true;
+                    case "level":
+                        this.levels = intersect(this.levels, values, LevelEnum::valueOf,
+                                () -> EnumSet.noneOf(LevelEnum.class));
+                        return true;
+                    case "status":
+                        this.statuses = intersect(this.statuses, values, JobStatusEnum::valueOf,
+                                () -> EnumSet.noneOf(JobStatusEnum.class));
+                        return true;
+                    case "location":
+                        this.locations = intersect(this.locations, values, JobIndexService::normalizeLocation,
+                                HashSet::new);
+                        return true;
+                    default:
+                        return false;
+                }
+            } catch (IllegalArgumentException e) {
+                // gia tri khong hop le: de Specification xu ly (va bao loi) nhu cu
+                return false;
+            }
+        }
+
+        private static <T> Set<T> intersect(Set<T> current, List<String> values, Function<String, T> parser,
+                Supplier<Set<T>> factory) {
+            Set<T> parsed = factory.get();
+            for (String value : values) {
+                parsed.add(parser.apply(value));
+            }
+            if (current != null) {
+                parsed.retainAll(current);
+            }
+            return parsed;
+        }
+
+        private boolean acceptSalary(FilterInfixOperator operator, FilterNode right) {
+            if (!(right instanceof InputNode input) || input.getValue() == null) {
+                return false;
+            }
+            double value;
+            try {
+                value = Double.parseDouble(String.valueOf(input.getValue()));
+            } catch (NumberFormatException e) {
+                return false;
+            }
+            if (operator instanceof EqualOperator) {
+                lowerBound(value, true);
+                upperBound(value, true);
+            } else if (operator instanceof GreaterThanOrEqualOperator) {
+                lowerBound(value, true);
+            } else if (operator instanceof GreaterThanOperator) {
+                lowerBound(value, false);
+            } else if (operator instanceof LessThanOrEqualOperator) {
+                upperBound(value, true);
+            } else if (operator instanceof LessThanOperator) {
+                upperBound(value, false);
+            } else {
+                return false;
+            }
+            return true;
+        }
+
+        private void lowerBound(double value, boolean inclusive) {
+            if (value > this.minSalary || (value == this.minSalary && !inclusive)) {
+                this.minSalary = value;
+                this.minInclusive = inclusive;
+            }
+        }
+
+        private void upperBound(double value, boolean inclusive) {
+            if (value < this.maxSalary || (value == this.maxSalary && !inclusive)) {
+                this.maxSalary = value;
+                this.maxInclusive = inclusive;
+            }
+        }
+
+        boolean hasSalaryRange() {
+            return this.minSalary != Double.NEGATIVE_INFINITY || this.maxSalary != Double.POSITIVE_INFINITY;
+        }
+
+        boolean salaryMatches(double salary) {
+            boolean aboveMin = this.minInclusive ? salary >= this.minSalary : salary > this.minSalary;
+            boolean belowMax = this.maxInclusive ? salary <= this.maxSalary : salary < this.maxSalary;
+            return aboveMin && belowMax;
+        }
+    }
+
+    /**
+     * Cau truc posting list. Khong thread-safe, JobIndexService dong bo bang lock.
+     */
+    static class Postings {
+        private final double salaryBand;
+        private final BitSet live = new BitSet();
+        private final Map<Long, Integer> slotByJobId = new HashMap<>();
+        private Job[] jobs = new Job[256];
+
+        private final Map<Long, BitSet> bySkill = new HashMap<>();
+        private final Map<Long, BitSet> byCompany = new HashMap<>();
+        private final Map<LevelEnum, BitSet> byLevel = new EnumMap<>(LevelEnum.class);
+        private final Map<JobStatusEnum, BitSet> byStatus = new EnumMap<>(JobStatusEnum.class);
+        private final Map<String, BitSet> byLocation = new HashMap<>();
+        private final Map<Long, BitSet> bySalaryBand = new HashMap<>();
+
+        Postings(double salaryBand) {
+            this.salaryBand = salaryBand > 0 ? salaryBand : 5_000_000;
+        }
+
+        int size() {
+            return this.slotByJobId.size();
+        }
+
+        void add(Job job) {
+            remove(job.getId());
+            int slot = this.live.nextClearBit(0);
+            if (slot >= this.jobs.length) {
+                this.jobs = Arrays.copyOf(this.jobs, Math.max(slot + 1, this.jobs.length * 2));
+            }
+            this.jobs[slot] = job;
+            this.live.set(slot);
+            this.slotByJobId.put(job.getId(), slot);
+            forEachPosting(job, posting -> posting.set(slot));
+        }
+
+        void remove(long jobId) {
+            Integer slot = this.slotByJobId.remove(jobId);
+            if (slot == null) {
+                return;
+            }
+            Job job = this.jobs[slot];
+            forEachPosting(job, posting -> posting.clear(slot));
+            this.jobs[slot] = null;
+            this.live.clear(slot);
+        }
+
+        private void forEachPosting(Job job, Consumer<BitSet> action) {
+            for (Skill skill : job.getSkills()) {
+                action.accept(this.bySkill.computeIfAbsent(skill.getId(), k -> new BitSet()));
+            }
+            if (job.getCompany() != null) {
+                action.accept(this.byCompany.computeIfAbsent(job.getCompany().getId(), k -> new BitSet()));
+            }
+            if (job.getLevel() != null) {
+                action.accept(this.byLevel.computeIfAbsent(job.getLevel(), k -> new BitSet()));
+            }
+            if (job.getStatus() != null) {
+                action.accept(this.byStatus.computeIfAbsent(job.getStatus(), k -> new BitSet()));
+            }
+            action.accept(this.byLocation.computeIfAbsent(normalizeLocation(job.getLocation()), k -> new BitSet()));
+            action.accept(this.bySalaryBand.computeIfAbsent(bandOf(job.getSalary()), k -> new BitSet()));
+        }
+
+        private long bandOf(double salary) {
+            return (long) Math.floor(salary / this.salaryBand);
+        }
+
+        List<Job> match(Criteria criteria) {
+            BitSet result = (BitSet) this.live.clone();
+            if (criteria.skillIds != null) {
+                result.and(union(this.bySkill, criteria.skillIds));
+            }
+            if (criteria.levels != null) {
+                result.and(union(this.byLevel, criteria.levels));
+            }
+            if (criteria.statuses != null) {
+                result.and(union(this.byStatus, criteria.statuses));
+            }
+            if (criteria.locations != null) {
+                result.and(union(this.byLocation, criteria.locations));
+            }
+            if (criteria.hasSalaryRange()) {
+                // hop cac khoang luong giao voi [min, max], bien se duoc kiem tra chinh xac ben duoi
+                BitSet bands = new BitSet();
+                for (Map.Entry<Long, BitSet> entry : this.bySalaryBand.entrySet()) {
+                    double bandMin = entry.getKey() * this.salaryBand;
+                    double bandMax = bandMin + this.salaryBand;
+                    if (bandMax >= criteria.minSalary && bandMin <= criteria.maxSalary) {
+                        bands.or(entry.getValue());
+                    }
+                }
+                result.and(bands);
+            }
+
+            List<Job> matched = new ArrayList<>(result.cardinality());
+            for (int slot = result.nextSetBit(0); slot >= 0; slot = result.nextSetBit(slot + 1)) {
+                Job job = this.jobs[slot];
+                if (!criteria.hasSalaryRange() || criteria.salaryMatches(job.getSalary())) {
+                    matched.add(job);
+                }
+            }
+            return matched;
+        }
+
+        private static <K> BitSet union(Map<K, BitSet> postings, Collection<K> keys) {
+            BitSet union = new BitSet();
+            for (K key : keys) {
+                BitSet posting = postings.get(key);
+                if (posting != null) {
+                    union.or(posting);
+                }
+            }
+            return union;
+        }
+
+        List<Long> jobIdsOfCompany(long companyId) {
+            return jobIdsOf(this.byCompany.get(companyId));
+        }
+
+        List<Long> jobIdsOfSkill(long skillId) {
+            return jobIdsOf(this.bySkill.get(skillId));
+        }
+
+        private List<Long> jobIdsOf(BitSet posting) {
+            List<Long> ids = new ArrayList<>();
+            if (posting != null) {
+                for (int slot = posting.nextSetBit(0); slot >= 0; slot = posting.nextSetBit(slot + 1)) {
+                    ids.add(this.jobs[slot].getId());
+                }
+            }
+            return ids;
+        }
+    }
+}
@@ -0,0 +1,578 @@
+package vn.ctiep.jobhunter.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.simple.SimpleQueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TopScoreDocCollectorManager;
+import org.apache.lucene.search.highlight.Highlighter;
+import org.apache.lucene.search.highlight.InvalidTokenOffsetsException;
+import org.apache.lucene.search.highlight.QueryScorer;
+import org.apache.lucene.search.highlight.SimpleFragmenter;
+import org.apache.lucene.search.highlight.SimpleHTMLFormatter;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.QueryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.util.HtmlUtils;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import vn.ctiep.jobhunter.domain.Job;
+import vn.ctiep.jobhunter.domain.Skill;
+import vn.ctiep.jobhunter.domain.event.CompanyChangedEvent;
+import vn.ctiep.jobhunter.domain.event.JobChangedEvent;
+import vn.ctiep.jobhunter.domain.event.SkillChangedEvent;
+import vn.ctiep.jobhunter.domain.response.ResultPaginationDTO;
+import vn.ctiep.jobhunter.domain.response.job.ResJobCardDTO;
+import vn.ctiep.jobhunter.domain.response.job.ResJobSearchDTO;
+import vn.ctiep.jobhunter.repository.JobRepository;
+import vn.ctiep.jobhunter.util.constant.JobStatusEnum;
+import vn.ctiep.jobhunter.util.constant.LevelEnum;
+import vn.ctiep.jobhunter.util.error.IdInvalidException;
+
+/**
+ * Chi muc full-text (Lucene, luu tren dia) cho cac job dang tuyen (active + APPROVED).
+ *
+ * Token duoc lowercase va bo dau (giu ca ban goc) nen "ke toan" tim thay "Kế toán",
+ * con truy van co dau se duoc uu tien diem cao hon. Moi truong cua card duoc luu
+ * trong document nen ket qua tim kiem khong can truy van MySQL.
+ *
+ * Chi muc nam rieng tren tung node: su kien thay doi chi cap nhat node phat ra no,
+ * cac node khac bat kip qua lan rebuild dinh ky. Rebuild ghi vao mot the he (thu muc)
+ * moi roi moi doi sang, nen tim kiem khong bao gio thay chi muc rong / dang dung do.
+ */
+@Service
+public class JobSearchService implements CommandLineRunner {
+    private static final Logger logger = LoggerFactory.getLogger(JobSearchService.class);
+
+    private static final int MAX_RESULT_WINDOW = 10000;
+
+    private final JobRepository jobRepository;
+    private final Analyzer analyzer = new VietnameseFoldingAnalyzer();
+
+    @Value("${ctiep.job-search.enabled:true}")
+    private boolean enabled;
+
+    @Value("${ctiep.job-search.index-dir:./data/job-search}")
+    private String indexDir;
+
+    // search / refresh giu read lock khi dung the he hien tai; doi the he giu write lock
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // job thay doi trong luc rebuild: anh chup co the da cu, nap lai sau khi doi
+    private final Set<Long> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong generationSeq = new AtomicLong(System.currentTimeMillis());
+    private Generation current;
+    private volatile boolean rebuilding;
+
+    public JobSearchService(JobRepository jobRepository) {
+        this.jobRepository = jobRepository;
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        if (!this.enabled) {
+            return;
+        }
+        Path root = Paths.get(this.indexDir);
+        Files.createDirectories(root);
+        // the he cu cua lan chay truoc: run() se dung lai tu DB
+        try (Stream<Path> children = Files.list(root)) {
+            children.forEach(JobSearchService::deleteQuietly);
+        }
+        // the he rong cho den khi rebuild dau tien xong
+        this.current = this.openGeneration();
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (this.current != null) {
+                this.current.close();
+                this.current = null;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Generation openGeneration() throws IOException {
+        Path path = Paths.get(this.indexDir, "gen-" + this.generationSeq.incrementAndGet());
+        FSDirectory directory = FSDirectory.open(path);
+        IndexWriterConfig config = new IndexWriterConfig(this.analyzer);
+        config.setOpenMode(IndexWriterConfig.OpenMode.CREATE);
+        IndexWriter writer = new IndexWriter(directory, config);
+        return new Generation(path, directory, writer, new SearcherManager(writer, null));
+    }
+
+    @Override
+    public void run(String... args) {
+        if (this.enabled) {
+            this.rebuild();
+        }
+    }
+
+    // Index lai toan bo job dang tuyen vao the he moi roi doi sang; dinh ky de bat kip
+    // thay doi tu node khac
+    @Scheduled(fixedDelayString = "${ctiep.job-search.rebuild-interval-ms:300000}",
+            initialDelayString = "${ctiep.job-search.rebuild-interval-ms:300000}")
+    public synchronized void rebuild() {
+        if (!this.enabled) {
+            return;
+        }
+        this.rebuilding = true;
+        this.changedDuringRebuild.clear();
+        Generation fresh = null;
+        try {
+            fresh = this.openGeneration();
+            int count = 0;
+            for (Job job : this.jobRepository.findActiveWithCompanyAndSkills()) {
+                if (isSearchable(job)) {
+                    fresh.writer().addDocument(toDocument(job));
+                    count++;
+                }
+            }
+            fresh.writer().commit();
+            fresh.searcherManager().maybeRefresh();
+
+            Generation old;
+            lock.writeLock().lock();
+            try {
+                old = this.current;
+                this.current = fresh;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            fresh = null;
+            logger.info("Job search index rebuilt with {} jobs", count);
+            // khong con ai giu the he cu sau khi da lay duoc write lock
+            if (old != null) {
+                old.close();
+                deleteQuietly(old.path());
+            }
+        } catch (IOException e) {
+            logger.error("Could not rebuild job search index", e);
+        } finally {
+            this.rebuilding = false;
+            if (fresh != null) {
+                fresh.closeQuietly();
+                deleteQuietly(fresh.path());
+            }
+        }
+        if (!this.changedDuringRebuild.isEmpty()) {
+            List<Long> ids = new ArrayList<>(this.changedDuringRebuild);
+            this.changedDuringRebuild.removeAll(ids);
+            this.refresh(ids);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onJobChanged(JobChangedEvent event) {
+        this.refresh(event.getJobIds());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onCompanyChanged(CompanyChangedEvent event) {
+        this.refresh(this.indexedJobIds(new TermQuery(new Term("companyId", String.valueOf(event.getCompanyId())))));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onSkillChanged(SkillChangedEvent event) {
+        this.refresh(this.indexedJobIds(new TermQuery(new Term("skillId", String.valueOf(event.getSkillId())))));
+    }
+
+    // Thay document cua tung job mot cach nguyen tu (updateDocument); chi refresh
+    // searcher NRT, commit xuong dia de cho commitPeriodically
+    public void refresh(Collection<Long> jobIds) {
+        if (!this.enabled || jobIds.isEmpty()) {
+            return;
+        }
+        if (this.rebuilding) {
+            this.changedDuringRebuild.addAll(jobIds);
+        }
+        Map<Long, Job> jobs = new HashMap<>();
+        for (Job job : this.jobRepository.findWithCompanyAndSkillsByIdIn(jobIds)) {
+            jobs.put(job.getId(), job);
+        }
+        lock.readLock().lock();
+        try {
+            if (this.current == null) {
+                return;
+            }
+            for (Long id : jobIds) {
+                Term term = new Term("id", String.valueOf(id));
+                Job job = jobs.get(id);
+                if (job != null && isSearchable(job)) {
+                    this.current.writer().updateDocument(term, toDocument(job));
+                } else {
+                    this.current.writer().deleteDocuments(term);
+                }
+            }
+            this.current.searcherManager().maybeRefresh();
+        } catch (IOException e) {
+            logger.error("Could not update job search index for jobs {}", jobIds, e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Mat thay doi chua commit khi node chet cung khong sao: khoi dong lai se rebuild
+    @Scheduled(fixedDelayString = "${ctiep.job-search.commit-interval-ms:30000}")
+    public void commitPeriodically() {
+        if (!this.enabled) {
+            return;
+        }
+        lock.readLock().lock();
+        try {
+            if (this.current != null && this.current.writer().hasUncommittedChanges()) {
+                this.current.writer().commit();
+            }
+        } catch (IOException e) {
+            logger.error("Could not commit job search index", e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Long> indexedJobIds(Query query) {
+        if (!this.enabled) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            if (this.current == null) {
+                return List.of();
+            }
+            SearcherManager searcherManager = this.current.searcherManager();
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                List<Long> ids = new ArrayList<>();
+                TopDocs topDocs = searcher.search(query, Math.max(1, searcher.getIndexReader().maxDoc()));
+                for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                    ids.add(Long.valueOf(searcher.storedFields().document(scoreDoc.doc).get("id")));
+                }
+                return ids;
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Tim kiem theo tu khoa tren ten, ky nang, cong ty, dia diem va mo ta job.
+     * Ket qua sap xep theo do lien quan, phan trang giong cac API danh sach khac.
+     */
+    public ResultPaginationDTO search(String q, Pageable pageable) throws IdInvalidException {
+        if (q == null || q.isBlank()) {
+            throw new IdInvalidException("Từ khóa tìm kiếm không được để trống");
+        }
+        if (!this.enabled) {
+            throw new IdInvalidException("Chức năng tìm kiếm đang tắt");
+        }
+        if (pageable.getOffset() + pageable.getPageSize() > MAX_RESULT_WINDOW) {
+            throw new IdInvalidException("Chỉ hỗ trợ tối đa " + MAX_RESULT_WINDOW + " kết quả đầu tiên");
+        }
+        Query query = this.buildQuery(q.trim());
+
+        lock.readLock().lock();
+        try {
+            if (this.current == null) {
+                throw new IdInvalidException("Chức năng tìm kiếm đang tắt");
+            }
+            SearcherManager searcherManager = this.current.searcherManager();
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                int offset = (int) pageable.getOffset();
+                TopDocs topDocs = searcher.search(query,
+                        new TopScoreDocCollectorManager(offset + pageable.getPageSize(), Integer.MAX_VALUE));
+                long total = topDocs.totalHits.value;
+                ScoreDoc[] page = Arrays.copyOfRange(topDocs.scoreDocs,
+                        Math.min(offset, topDocs.scoreDocs.length), topDocs.scoreDocs.length);
+
+                Highlighter nameHighlighter = highlighter(query, "name");
+                Highlighter descriptionHighlighter = highlighter(query, "description");
+
+                List<ResJobSearchDTO> result = new ArrayList<>();
+                for (ScoreDoc scoreDoc : page) {
+                    Document doc = searcher.storedFields().document(scoreDoc.doc);
+                    ResJobSearchDTO res = toResult(doc);
+                    res.setScore(scoreDoc.score);
+                    res.setHighlightName(this.bestFragment(nameHighlighter, "name", doc.get("name")));
+                    res.setHighlightDescription(
+                            this.bestFragment(descriptionHighlighter, "description", doc.get("description")));
+                    result.add(res);
+                }
+
+                ResultPaginationDTO rs = new ResultPaginationDTO();
+                ResultPaginationDTO.Meta mt = new ResultPaginationDTO.Meta();
+
+                mt.setPage(pageable.getPageNumber() + 1);
+                mt.setPageSize(pageable.getPageSize());
+                mt.setPages((int) ((total + pageable.getPageSize() - 1) / pageable.getPageSize()));
+                mt.setTotal(total);
+
+                rs.setMeta(mt);
+                rs.setResult(result);
+                return rs;
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Tat ca tu khoa phai xuat hien (AND); cum tu khop nguyen van trong ten duoc cong diem
+    private Query buildQuery(String q) {
+        Map<String, Float> weights = new HashMap<>();
+        weights.put("name", 3f);
+        weights.put("skills", 2f);
+        weights.put("company", 1.5f);
+        weights.put("location", 1f);
+        weights.put("description", 1f);
+        SimpleQueryParser parser = new SimpleQueryParser(this.analyzer, weights);
+        parser.setDefaultOperator(BooleanClause.Occur.MUST);
+
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        builder.add(parser.parse(q), BooleanClause.Occur.MUST);
+        Query phrase = new QueryBuilder(this.analyzer).createPhraseQuery("name", q);
+        if (phrase != null) {
+            builder.add(new BoostQuery(phrase, 2f), BooleanClause.Occur.SHOULD);
+        }
+        return builder.build();
+    }
+
+    private Highlighter highlighter(Query query, String field) {
+        // chi escape ky tu HTML, giu nguyen chu tieng Viet
+        Highlighter highlighter = new Highlighter(new SimpleHTMLFormatter("<b>", "</b>"),
+                text -> HtmlUtils.htmlEscape(text, "UTF-8"), new QueryScorer(query, field));
+        highlighter.setTextFragmenter(new SimpleFragmenter(160));
+        return highlighter;
+    }
+
+    private String bestFragment(Highlighter highlighter, String field, String text) {
+        if (text == null || text.isEmpty()) {
+            return null;
+        }
+        try {
+            return highlighter.getBestFragment(this.analyzer, field, text);
+        } catch (IOException | InvalidTokenOffsetsException e) {
+            return null;
+        }
+    }
+
+    private static boolean isSearchable(Job job) {
+        return job.isActive() && job.getStatus() == JobStatusEnum.APPROVED;
+    }
+
+    // description la HTML tu trinh soan thao: bo the truoc khi index
+    static String plainText(String html) {
+        if (html == null) {
+            return "";
+        }
+        return html.replaceAll("<[^>]*>", " ")
+                .replace("&nbsp;", " ")
+                .replace("&amp;", "&")
+                .replace("&lt;", "<")
+                .replace("&gt;", ">")
+                .replace("&quot;", "\"")
+                .replaceAll("\\s+", " ")
+                .trim();
+    }
+
+    private static Document toDocument(Job job) {
+        Document doc = new Document();
+        doc.add(new StringField("id", String.valueOf(job.getId()), Field.Store.YES));
+        doc.add(new TextField("name", nullToEmpty(job.getName()), Field.Store.YES));
+        doc.add(new TextField("location", nullToEmpty(job.getLocation()), Field.Store.YES));
+        doc.add(new TextField("description", plainText(job.getDescription()), Field.Store.YES));
+        doc.add(new StoredField("salary", job.getSalary()));
+        doc.add(new StoredField("quantity", job.getQuantity()));
+        if (job.getLevel() != null) {
+            doc.add(new StoredField("level", job.getLevel().name()));
+        }
+        if (job.getStatus() != null) {
+            doc.add(new StoredField("status", job.getStatus().name()));
+        }
+        storeInstant(doc, "startDate", job.getStartDate());
+        storeInstant(doc, "endDate", job.getEndDate());
+        storeInstant(doc, "createdAt", job.getCreatedAt());
+        storeInstant(doc, "updatedAt", job.getUpdatedAt());
+        if (job.getCreatedBy() != null) {
+            doc.add(new StoredField("createdBy", job.getCreatedBy()));
+        }
+        if (job.getUpdatedBy() != null) {
+            doc.add(new StoredField("updatedBy", job.getUpdatedBy()));
+        }
+
+        if (job.getCompany() != null) {
+            doc.add(new StringField("companyId", String.valueOf(job.getCompany().getId()), Field.Store.YES));
+            doc.add(new TextField("company", nullToEmpty(job.getCompany().getName()), Field.Store.YES));
+            if (job.getCompany().getLogo() != null) {
+                doc.add(new StoredField("companyLogo", job.getCompany().getLogo()));
+            }
+        }
+        if (job.getSkills() != null) {
+            for (Skill skill : job.getSkills()) {
+                doc.add(new StringField("skillId", String.valueOf(skill.getId()), Field.Store.YES));
+                doc.add(new TextField("skills", nullToEmpty(skill.getName()), Field.Store.YES));
+            }
+        }
+        return doc;
+    }
+
+    private static ResJobSearchDTO toResult(Document doc) {
+        ResJobSearchDTO res = new ResJobSearchDTO();
+        res.setId(Long.parseLong(doc.get("id")));
+        res.setName(doc.get("name"));
+        res.setLocation(doc.get("location"));
+        res.setSalary(doc.getField("salary").numericValue().doubleValue());
+        res.setQuantity(doc.getField("quantity").numericValue().intValue());
+        if (doc.get("level") != null) {
+            res.setLevel(LevelEnum.valueOf(doc.get("level")));
+        }
+        if (doc.get("status") != null) {
+            res.setStatus(JobStatusEnum.valueOf(doc.get("status")));
+        }
+        res.setActive(true);
+        res.setStartDate(readInstant(doc, "startDate"));
+        res.setEndDate(readInstant(doc, "endDate"));
+        res.setCreatedAt(readInstant(doc, "createdAt"));
+        res.setUpdatedAt(readInstant(doc, "updatedAt"));
+        res.setCreatedBy(doc.get("createdBy"));
+        res.setUpdatedBy(doc.get("updatedBy"));
+
+        if (doc.get("companyId") != null) {
+            res.setCompany(new ResJobCardDTO.CompanyJob(Long.parseLong(doc.get("companyId")), doc.get("company"),
+                    doc.get("companyLogo")));
+        }
+        String[] skillIds = doc.getValues("skillId");
+        String[] skillNames = doc.getValues("skills");
+        List<ResJobCardDTO.SkillJob> skills = new ArrayList<>();
+        for (int i = 0; i < skillIds.length && i < skillNames.length; i++) {
+            skills.add(new ResJobCardDTO.SkillJob(Long.parseLong(skillIds[i]), skillNames[i]));
+        }
+        res.setSkills(skills);
+        return res;
+    }
+
+    private static void storeInstant(Document doc, String field, Instant value) {
+        if (value != null) {
+            doc.add(new StoredField(field, value.toEpochMilli()));
+        }
+    }
+
+    private static Instant readInstant(Document doc, String field) {
+        IndexableField value = doc.getField(field);
+        return value == null ? null : Instant.ofEpochMilli(value.numericValue().longValue());
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    private static void deleteQuietly(Path path) {
+        try (Stream<Path> files = Files.walk(path)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        } catch (IOException e) {
+            logger.warn("Could not delete old job search index {}", path, e);
+        }
+    }
+
+    // Mot the he chi muc: thu muc rieng + writer + searcher NRT
+    private record Generation(Path path, FSDirectory directory, IndexWriter writer,
+            SearcherManager searcherManager) {
+
+        void close() throws IOException {
+            this.searcherManager.close();
+            this.writer.close();
+            this.directory.close();
+        }
+
+        void closeQuietly() {
+            try {
+                this.close();
+            } catch (IOException e) {
+                logger.warn("Could not close job search index {}", this.path, e);
+            }
+        }
+    }
+
+    /**
+     * StandardTokenizer + lowercase + ASCII folding (giu token goc). Tieng Viet duoc
+     * tach theo am tiet; bo dau giup go khong dau van tim duoc, "đ" duoc doi thanh "d".
+     */
+    static class VietnameseFoldingAnalyzer extends Analyzer {
+        @Override
+        protected TokenStreamComponents createComponents(String fieldName) {
+            Tokenizer source = new StandardTokenizer();
+            TokenStream result = new LowerCaseFilter(source);
+            result = new ASCIIFoldingFilter(result, true);
+            return new TokenStreamComponents(source, result);
+        }
+
+        @Override
+        protected TokenStream normalize(String fieldName, TokenStream in) {
+            return new LowerCaseFilter(in);
+        }
+    }
+}
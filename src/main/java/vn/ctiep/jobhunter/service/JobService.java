@@ -1,65 +1,102 @@
 package vn.ctiep.jobhunter.service;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
-import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import vn.ctiep.jobhunter.config.CacheConfig;
 import vn.ctiep.jobhunter.domain.Company;
 import vn.ctiep.jobhunter.domain.Job;
 import vn.ctiep.jobhunter.domain.Skill;
 import vn.ctiep.jobhunter.domain.User;
+import vn.ctiep.jobhunter.domain.event.JobApprovedEvent;
+import vn.ctiep.jobhunter.domain.event.JobChangedEvent;
 import vn.ctiep.jobhunter.domain.response.ResLoginDTO;
 import vn.ctiep.jobhunter.domain.response.ResultPaginationDTO;
 import vn.ctiep.jobhunter.domain.response.job.ResCreateJobDTO;
+import vn.ctiep.jobhunter.domain.response.job.ResJobCardDTO;
 import vn.ctiep.jobhunter.domain.response.job.ResUpdateJobDTO;
 import vn.ctiep.jobhunter.repository.CompanyRepository;
 import vn.ctiep.jobhunter.repository.JobRepository;
 import vn.ctiep.jobhunter.repository.SkillRepository;
 import vn.ctiep.jobhunter.repository.UserRepository;
 import vn.ctiep.jobhunter.util.SecurityUtil;
+import vn.ctiep.jobhunter.util.annotation.SchedulerLock;
+import vn.ctiep.jobhunter.util.KeysetPaginationUtil;
+import vn.ctiep.jobhunter.util.error.IdInvalidException;
 import vn.ctiep.jobhunter.domain.Resume;
 import vn.ctiep.jobhunter.repository.ResumeRepository;
-import vn.ctiep.jobhunter.util.constant.ResumeStateEnum;
 import vn.ctiep.jobhunter.util.constant.JobStatusEnum;
 
 @Service
 public class JobService {
+    private static final Logger logger = LoggerFactory.getLogger(JobService.class);
 
     private final JobRepository jobRepository;
     private final SkillRepository skillRepository;
     private final CompanyRepository companyRepository;
     private final UserRepository userRepository;
     private final ResumeRepository resumeRepository;
+    private final JobIndexService jobIndexService;
+    private final ReadCacheService readCacheService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${ctiep.expiry.chunk-size:500}")
+    private int expiryChunkSize;
 
     public JobService(JobRepository jobRepository,
             SkillRepository skillRepository,
             CompanyRepository companyRepository,
             UserRepository userRepository,
-            ResumeRepository resumeRepository) {
+            ResumeRepository resumeRepository,
+            JobIndexService jobIndexService,
+            ReadCacheService readCacheService,
+            ApplicationEventPublisher eventPublisher,
+            TransactionTemplate transactionTemplate) {
         this.jobRepository = jobRepository;
         this.skillRepository = skillRepository;
         this.companyRepository = companyRepository;
         this.userRepository = userRepository;
         this.resumeRepository = resumeRepository;
+        this.jobIndexService = jobIndexService;
+        this.readCacheService = readCacheService;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
     }
 
     public Optional<Job> fetchJobById(long id) {
         return this.jobRepository.findById(id);
     }
 
+    // Trang chi tiet cong khai: doc qua cache, tra ve ban sao tach roi (khong dung de cap nhat)
+    public Optional<Job> fetchJobDetail(long id) throws IdInvalidException {
+        return Optional.ofNullable(this.readCacheService.getOrLoad(CacheConfig.JOB_DETAIL, String.valueOf(id),
+                () -> this.jobRepository.findById(id).map(JobIndexService::detachedCopyOf).orElse(null)));
+    }
+
     public ResCreateJobDTO create(Job j) {
         // trang thai ban dau
         j.setActive(false);
         j.setStatus(JobStatusEnum.PENDING);
+        j.setApprovedAt(null);
+        j.setHiredCount(0);
 
         // gan cong ty
         Optional<ResLoginDTO.UserInsideToken> optionalUser = SecurityUtil.getCurrentUserInsideToken();
@@ -86,6 +123,8 @@ public class JobService {
         }
         // create job
         Job currentJob = this.jobRepository.save(j);
+        this.eventPublisher.publishEvent(new JobChangedEvent(currentJob.getId()));
+        this.eventPublisher.publishEvent(StatsCounterService.jobCreated(currentJob));
 
         // convert response
         ResCreateJobDTO dto = new ResCreateJobDTO();
@@ -136,6 +175,8 @@ public class JobService {
                 }
             }
         }
+        boolean wasActive = jobInDB.isActive();
+        String previousName = jobInDB.getName();
         // update correct info
         jobInDB.setName(j.getName());
         jobInDB.setSalary(j.getSalary());
@@ -147,6 +188,15 @@ public class JobService {
         jobInDB.setActive(j.isActive());
         // update job
         Job currentJob = this.jobRepository.save(jobInDB);
+        this.eventPublisher.publishEvent(new JobChangedEvent(currentJob.getId()));
+        if (wasActive != currentJob.isActive()) {
+            this.eventPublisher.publishEvent(
+                    StatsCounterService.activeJobsChanged(currentJob.getCompany(), currentJob.isActive() ? 1 : -1));
+        }
+        if (!Objects.equals(previousName, currentJob.getName())) {
+            this.eventPublisher.publishEvent(StatsCounterService.jobRenamed(currentJob, previousName,
+                    this.resumeRepository.countByJobId(currentJob.getId())));
+        }
 
         // convert response
         ResUpdateJobDTO dto = new ResUpdateJobDTO();
@@ -178,8 +228,13 @@ public class JobService {
             Job job = jobOptional.get();
             
             // 1. Xóa mềm Job
+            boolean wasActive = job.isActive();
             job.setActive(false);
             this.jobRepository.save(job);
+            this.eventPublisher.publishEvent(new JobChangedEvent(job.getId()));
+            if (wasActive) {
+                this.eventPublisher.publishEvent(StatsCounterService.activeJobsChanged(job.getCompany(), -1));
+            }
             
             // 2. Xóa mềm tất cả Resume liên quan
             List<Resume> relatedResumes = resumeRepository.findByJobIdAndActiveTrue(job.getId());
@@ -199,6 +254,8 @@ public class JobService {
             // 1. Khôi phục Job
             job.setActive(true);
             job = this.jobRepository.save(job);
+            this.eventPublisher.publishEvent(new JobChangedEvent(job.getId()));
+            this.eventPublisher.publishEvent(StatsCounterService.activeJobsChanged(job.getCompany(), 1));
             
             // 2. Khôi phục tất cả Resume liên quan
             List<Resume> relatedResumes = resumeRepository.findByJobId(job.getId());
@@ -212,9 +269,24 @@ public class JobService {
         return null;
     }
 
-    public ResultPaginationDTO fetchAll(Specification<Job> spec, Pageable pageable) {
+    public ResultPaginationDTO fetchAll(Specification<Job> spec, Pageable pageable, String cursor, boolean withTotal)
+            throws IdInvalidException {
+        String key = this.readCacheService.listKey(spec, pageable, cursor, withTotal);
+        return this.readCacheService.getOrLoad(CacheConfig.JOB_LIST, key,
+                () -> this.loadAll(spec, pageable, cursor, withTotal));
+    }
 
-        Page<Job> pageJob = this.jobRepository.findAll(spec, pageable);
+    private ResultPaginationDTO loadAll(Specification<Job> spec, Pageable pageable, String cursor, boolean withTotal)
+            throws IdInvalidException {
+        if (cursor != null) {
+            return KeysetPaginationUtil.fetch(this.jobRepository, spec, cursor, pageable, withTotal,
+                    JobRepository.CARD_GRAPH, this::convertToResJobCardDTO);
+        }
+        // filter thong dung (active:true + skills/level/location/luong) tra loi tu chi muc
+        Optional<Page<Job>> indexed = this.jobIndexService.search(spec, pageable);
+        Page<ResJobCardDTO> pageJob = indexed.isPresent()
+                ? indexed.get().map(this::convertToResJobCardDTO)
+                : this.jobRepository.findCards(spec, pageable);
 
         ResultPaginationDTO rs = new ResultPaginationDTO();
         ResultPaginationDTO.Meta mt = new ResultPaginationDTO.Meta();
@@ -225,20 +297,26 @@ public class JobService {
         mt.setTotal(pageJob.getTotalElements());
 
         rs.setMeta(mt);
-        rs.setResult(pageJob.getContent());
+        // ArrayList de gia tri serialize/deserialize duoc khi nam trong Redis
+        rs.setResult(new ArrayList<>(pageJob.getContent()));
 
         return rs;
     }
 
-    public ResultPaginationDTO fetchByCompanyId(long companyId, Specification<Job> spec, Pageable pageable) {
+    public ResultPaginationDTO fetchByCompanyId(long companyId, Specification<Job> spec, Pageable pageable,
+            String cursor, boolean withTotal) throws IdInvalidException {
         Specification<Job> companySpec = (root, query, cb) -> cb.equal(root.get("company").get("id"), companyId);
 
         Specification<Job> finalSpec = companySpec;
         if (spec != null) {
             finalSpec = finalSpec.and(spec);
         }
+        if (cursor != null) {
+            return KeysetPaginationUtil.fetch(this.jobRepository, finalSpec, cursor, pageable, withTotal,
+                    JobRepository.CARD_GRAPH, this::convertToResJobCardDTO);
+        }
 
-        Page<Job> pageJob = this.jobRepository.findAll(finalSpec, pageable);
+        Page<ResJobCardDTO> pageJob = this.jobRepository.findCards(finalSpec, pageable);
 
         ResultPaginationDTO rs = new ResultPaginationDTO();
         ResultPaginationDTO.Meta mt = new ResultPaginationDTO.Meta();
@@ -252,30 +330,79 @@ public class JobService {
         rs.setResult(pageJob.getContent());
         return rs;
     }
-    //Chay moi ngay luc 00:00
+
+    public ResJobCardDTO convertToResJobCardDTO(Job job) {
+        ResJobCardDTO res = new ResJobCardDTO();
+        res.setId(job.getId());
+        res.setName(job.getName());
+        res.setLocation(job.getLocation());
+        res.setSalary(job.getSalary());
+        res.setQuantity(job.getQuantity());
+        res.setLevel(job.getLevel());
+        res.setStartDate(job.getStartDate());
+        res.setEndDate(job.getEndDate());
+        res.setActive(job.isActive());
+        res.setStatus(job.getStatus());
+        res.setCreatedAt(job.getCreatedAt());
+        res.setUpdatedAt(job.getUpdatedAt());
+        res.setCreatedBy(job.getCreatedBy());
+        res.setUpdatedBy(job.getUpdatedBy());
+        if (job.getCompany() != null) {
+            res.setCompany(new ResJobCardDTO.CompanyJob(job.getCompany().getId(), job.getCompany().getName(),
+                    job.getCompany().getLogo()));
+        }
+        List<ResJobCardDTO.SkillJob> skills = new ArrayList<>();
+        if (job.getSkills() != null) {
+            for (Skill skill : job.getSkills()) {
+                skills.add(new ResJobCardDTO.SkillJob(skill.getId(), skill.getName()));
+            }
+        }
+        res.setSkills(skills);
+        return res;
+    }
+    //Chay moi ngay luc 00:00, chia 4 phan theo job id cho cac node.
+    // Moi lo expiry-chunk-size job: 1 SELECT id + 2 UPDATE trong mot transaction ngan
     @Scheduled(cron = "0 0 0 * * ?")
-    @Transactional
+    @SchedulerLock(name = "deactivate-expired-jobs", leaseSeconds = 1800, minLeaseSeconds = 60, partitions = 4)
     public void deactivateExpiredJobs() {
         Instant now = Instant.now();
-        List<Job> expiredJobs = jobRepository.findByEndDateBeforeAndActiveTrue(now);
-
-        for (Job job : expiredJobs) {
-            // 1. Cập nhật trạng thái job
-            job.setActive(false);
-            jobRepository.save(job);
-
-            // 2. Cập nhật các resume liên quan
-            List<Resume> relatedResumes = resumeRepository.findByJobIdAndActiveTrue(job.getId());
-            for (Resume resume : relatedResumes) {
-                // Chỉ cập nhật các resume đang ở trạng thái chờ xử lý
-                if (resume.getStatus() == ResumeStateEnum.PENDING) {
-                    resume.setActive(false);
-                    resumeRepository.save(resume);
+        SchedulerLockService.Lease lease = SchedulerLockService.currentLease();
+        int partitions = lease == null ? 1 : lease.partitions();
+        int partition = lease == null ? 0 : lease.partition();
+
+        long jobCount = 0;
+        long resumeCount = 0;
+        long afterId = 0;
+        while (true) {
+            long from = afterId;
+            long[] chunk = this.transactionTemplate.execute(status -> {
+                List<Long> ids = this.jobRepository.findExpiredActiveIds(now, from, partitions, partition,
+                        PageRequest.of(0, this.expiryChunkSize));
+                if (ids.isEmpty()) {
+                    return null;
                 }
+                // 1. Cập nhật trạng thái job
+                List<Object[]> byCompany = this.jobRepository.countActiveByCompanyIn(ids);
+                int jobs = this.jobRepository.deactivateExpiredByIdIn(ids, now);
+                // 2. Các resume đang chờ xử lý của các job đó
+                int resumes = this.resumeRepository.deactivatePendingByJobIdIn(ids, now);
+                this.eventPublisher.publishEvent(new JobChangedEvent(ids));
+                this.eventPublisher.publishEvent(StatsCounterService.activeJobsChanged(byCompany, -1));
+                return new long[] { jobs, resumes, ids.get(ids.size() - 1), ids.size() };
+            });
+            if (chunk == null) {
+                break;
+            }
+            jobCount += chunk[0];
+            resumeCount += chunk[1];
+            afterId = chunk[2];
+            if (chunk[3] < this.expiryChunkSize) {
+                break;
             }
         }
 
-        System.out.println("✅ Cronjob đã cập nhật " + expiredJobs.size() + " job hết hạn.");
+        logger.info("Cronjob deactivated {} expired jobs and {} pending resumes (partition {}/{})",
+                jobCount, resumeCount, partition, partitions);
     }
 
     @Transactional
@@ -286,8 +413,16 @@ public class JobService {
             
             // Chỉ duyệt những job đang ở trạng thái PENDING
             if (job.getStatus() == JobStatusEnum.PENDING) {
+                boolean wasActive = job.isActive();
                 job.setStatus(JobStatusEnum.APPROVED);
                 job.setActive(true);
+                job.setApprovedAt(Instant.now());
+                this.eventPublisher.publishEvent(new JobChangedEvent(job.getId()));
+                if (!wasActive) {
+                    this.eventPublisher.publishEvent(StatsCounterService.activeJobsChanged(job.getCompany(), 1));
+                }
+                // thong bao ngay cho subscriber sau khi commit
+                this.eventPublisher.publishEvent(new JobApprovedEvent(job.getId()));
                 return this.jobRepository.save(job);
             }
         }
@@ -302,8 +437,13 @@ public class JobService {
             
             // Chỉ từ chối những job đang ở trạng thái PENDING
             if (job.getStatus() == JobStatusEnum.PENDING) {
+                boolean wasActive = job.isActive();
                 job.setStatus(JobStatusEnum.REJECTED);
                 job.setActive(false);
+                this.eventPublisher.publishEvent(new JobChangedEvent(job.getId()));
+                if (wasActive) {
+                    this.eventPublisher.publishEvent(StatsCounterService.activeJobsChanged(job.getCompany(), -1));
+                }
                 return this.jobRepository.save(job);
             }
         }
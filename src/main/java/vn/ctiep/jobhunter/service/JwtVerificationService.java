@@ -0,0 +1,118 @@
+package vn.ctiep.jobhunter.service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.nimbusds.jose.util.Base64;
+
+import vn.ctiep.jobhunter.domain.response.ResLoginDTO;
+import vn.ctiep.jobhunter.util.SecurityUtil;
+
+/**
+ * Xac thuc JWT dung chung cho resource server, WebSocket handshake va refresh token.
+ *
+ * Mot NimbusJwtDecoder duy nhat. Token da xac thuc duoc giu trong cache (key la
+ * SHA-256 cua token, khong giu token goc) den dung thoi diem exp, nen cac request
+ * sau cung token khong phai kiem tra chu ky va parse JSON lai. Claim "user" duoc
+ * chuyen san thanh UserInsideToken mot lan.
+ */
+@Service
+public class JwtVerificationService {
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final NimbusJwtDecoder decoder;
+    private final Cache<ByteBuffer, Jwt> verified;
+
+    public JwtVerificationService(@Value("${ctiep.jwt.base64-secret}") String jwtKey,
+            @Value("${ctiep.jwt.verified-cache-size:10000}") long cacheSize) {
+        byte[] keyBytes = Base64.from(jwtKey).decode();
+        SecretKey secretKey = new SecretKeySpec(keyBytes, 0, keyBytes.length, SecurityUtil.JWT_ALGORITHM.getName());
+        this.decoder = NimbusJwtDecoder.withSecretKey(secretKey).macAlgorithm(SecurityUtil.JWT_ALGORITHM).build();
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfter(new Expiry<ByteBuffer, Jwt>() {
+                    @Override
+                    public long expireAfterCreate(ByteBuffer key, Jwt jwt, long currentTime) {
+                        return Math.max(0, Duration.between(Instant.now(), jwt.getExpiresAt()).toNanos());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(ByteBuffer key, Jwt jwt, long currentTime, long currentDuration) {
+                        return this.expireAfterCreate(key, jwt, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(ByteBuffer key, Jwt jwt, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Giong NimbusJwtDecoder.decode: nem JwtException neu token sai chu ky/het han.
+     */
+    public Jwt decode(String token) throws JwtException {
+        ByteBuffer key = digest(token);
+        Jwt jwt = this.verified.getIfPresent(key);
+        if (jwt != null && jwt.getExpiresAt().isAfter(Instant.now())) {
+            return jwt;
+        }
+        jwt = withParsedUser(this.decoder.decode(token));
+        // token khong co exp thi khong cache
+        if (jwt.getExpiresAt() != null) {
+            this.verified.put(key, jwt);
+        }
+        return jwt;
+    }
+
+    // Claim "user" cua token, null neu khong co
+    public static ResLoginDTO.UserInsideToken userOf(Jwt jwt) {
+        Object userClaim = jwt.getClaims().get("user");
+        if (userClaim == null || userClaim instanceof ResLoginDTO.UserInsideToken) {
+            return (ResLoginDTO.UserInsideToken) userClaim;
+        }
+        return objectMapper.convertValue(userClaim, ResLoginDTO.UserInsideToken.class);
+    }
+
+    // Thay claim "user" (Map) bang UserInsideToken da chuyen doi
+    private static Jwt withParsedUser(Jwt jwt) {
+        ResLoginDTO.UserInsideToken user = userOf(jwt);
+        if (user == null) {
+            return jwt;
+        }
+        return Jwt.withTokenValue(jwt.getTokenValue())
+                .headers(headers -> headers.putAll(jwt.getHeaders()))
+                .claims(claims -> {
+                    claims.putAll(jwt.getClaims());
+                    claims.put("user", user);
+                })
+                .build();
+    }
+
+    private static ByteBuffer digest(String token) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
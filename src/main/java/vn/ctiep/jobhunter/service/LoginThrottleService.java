@@ -0,0 +1,93 @@
+package vn.ctiep.jobhunter.service;
+
+import java.util.List;
+import java.util.Locale;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import vn.ctiep.jobhunter.util.error.TooManyRequestsException;
+
+/**
+ * Gioi han so lan dang nhap theo IP va theo tai khoan bang token bucket tren Redis
+ * (dung chung moi node). Moi lan thu lay mot token; bucket hoi lai per-minute token
+ * moi phut, toi da capacity. Het token thi tra 429 ma khong bam mat khau.
+ * Loi Redis chi ghi log va cho qua.
+ */
+@Service
+public class LoginThrottleService {
+    private static final Logger logger = LoggerFactory.getLogger(LoginThrottleService.class);
+
+    private static final String KEY = "login_rate:";
+
+    // KEYS: bucket; ARGV: capacity, token/ms, now (ms). Tra ve 0 neu duoc phep,
+    // nguoc lai so ms phai cho den khi co token
+    private static final DefaultRedisScript<Long> TAKE_SCRIPT = new DefaultRedisScript<>(
+            "local cap = tonumber(ARGV[1]) "
+                    + "local rate = tonumber(ARGV[2]) "
+                    + "local now = tonumber(ARGV[3]) "
+                    + "local b = redis.call('HMGET', KEYS[1], 't', 'ts') "
+                    + "local tokens = tonumber(b[1]) "
+                    + "local ts = tonumber(b[2]) "
+                    + "if tokens == nil or ts == nil then tokens = cap ts = now end "
+                    + "tokens = math.min(cap, tokens + math.max(0, now - ts) * rate) "
+                    + "local wait = 0 "
+                    + "if tokens >= 1 then tokens = tokens - 1 else wait = math.ceil((1 - tokens) / rate) end "
+                    + "redis.call('HSET', KEYS[1], 't', tostring(tokens), 'ts', now) "
+                    + "redis.call('PEXPIRE', KEYS[1], math.ceil(cap / rate) + 1000) "
+                    + "return wait",
+            Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${ctiep.auth.login-rate.ip.capacity:20}")
+    private int ipCapacity;
+
+    @Value("${ctiep.auth.login-rate.ip.per-minute:10}")
+    private int ipPerMinute;
+
+    @Value("${ctiep.auth.login-rate.account.capacity:5}")
+    private int accountCapacity;
+
+    @Value("${ctiep.auth.login-rate.account.per-minute:5}")
+    private int accountPerMinute;
+
+    public LoginThrottleService(StringRedisTemplate stringRedisTemplate, MeterRegistry meterRegistry) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void check(String ip, String username) throws TooManyRequestsException {
+        this.take("ip", ip, this.ipCapacity, this.ipPerMinute);
+        if (username != null && !username.isBlank()) {
+            this.take("account", username.trim().toLowerCase(Locale.ROOT), this.accountCapacity,
+                    this.accountPerMinute);
+        }
+    }
+
+    private void take(String scope, String id, int capacity, int perMinute) throws TooManyRequestsException {
+        if (id == null || capacity <= 0 || perMinute <= 0) {
+            return;
+        }
+        Long waitMs;
+        try {
+            waitMs = this.stringRedisTemplate.execute(TAKE_SCRIPT, List.of(KEY + scope + ":" + id),
+                    String.valueOf(capacity), String.valueOf(perMinute / 60_000.0),
+                    String.valueOf(System.currentTimeMillis()));
+        } catch (RuntimeException e) {
+            logger.warn("Could not check login rate limit for {}", scope, e);
+            return;
+        }
+        if (waitMs != null && waitMs > 0) {
+            this.meterRegistry.counter("auth.login.throttled", "scope", scope).increment();
+            throw new TooManyRequestsException("Bạn đăng nhập quá nhiều lần, vui lòng thử lại sau.",
+                    Math.max(1, (waitMs + 999) / 1000));
+        }
+    }
+}
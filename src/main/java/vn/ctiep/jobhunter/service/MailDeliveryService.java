@@ -0,0 +1,293 @@
+package vn.ctiep.jobhunter.service;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+
+/**
+ * Hang doi gui email co gioi han.
+ *
+ * Mot so luong worker co dinh, moi worker giu mot ket noi SMTP (Transport) va gui
+ * lien tiep toi da batch-size thu tren cung ket noi thay vi mo ket noi + TLS cho
+ * tung thu. Co gioi han toc do chung, thu lai voi backoff tang dan, ket noi dong
+ * khi ranh qua idle-timeout. Metrics: mail.queue.size, mail.send, mail.send.failures,
+ * mail.send.retries, mail.rejected.
+ *
+ * Email giao dich (outbox) di lan uu tien rieng: hang doi, worker va gioi han toc do
+ * rieng (submitPriority), nen khong phai xep sau hang nghin thu digest.
+ */
+@Service
+public class MailDeliveryService {
+    private static final Logger logger = LoggerFactory.getLogger(MailDeliveryService.class);
+
+    private final JavaMailSender javaMailSender;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${ctiep.mail.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${ctiep.mail.workers:2}")
+    private int workers;
+
+    @Value("${ctiep.mail.batch-size:50}")
+    private int batchSize;
+
+    // 0 = khong gioi han
+    @Value("${ctiep.mail.rate-per-second:10}")
+    private double ratePerSecond;
+
+    @Value("${ctiep.mail.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${ctiep.mail.backoff-ms:1000}")
+    private long backoffMs;
+
+    @Value("${ctiep.mail.enqueue-timeout-ms:5000}")
+    private long enqueueTimeoutMs;
+
+    @Value("${ctiep.mail.idle-timeout-ms:30000}")
+    private long idleTimeoutMs;
+
+    @Value("${ctiep.mail.priority.queue-capacity:1000}")
+    private int priorityQueueCapacity;
+
+    @Value("${ctiep.mail.priority.workers:1}")
+    private int priorityWorkers;
+
+    private BlockingQueue<Delivery> queue;
+    private BlockingQueue<Delivery> priorityQueue;
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile boolean running;
+
+    // thoi diem (nanoTime) som nhat duoc gui thu tiep theo, moi lan mot moc
+    private final AtomicLong nextSendAt = new AtomicLong();
+    private final AtomicLong priorityNextSendAt = new AtomicLong();
+
+    private Timer sendTimer;
+    private Counter failures;
+    private Counter retries;
+    private Counter rejected;
+
+    public MailDeliveryService(JavaMailSender javaMailSender, MeterRegistry meterRegistry) {
+        this.javaMailSender = javaMailSender;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void start() {
+        this.queue = new ArrayBlockingQueue<>(this.queueCapacity);
+        this.priorityQueue = new ArrayBlockingQueue<>(this.priorityQueueCapacity);
+        this.meterRegistry.gauge("mail.queue.size", this.queue, BlockingQueue::size);
+        this.meterRegistry.gauge("mail.priority.queue.size", this.priorityQueue, BlockingQueue::size);
+        this.sendTimer = Timer.builder("mail.send").description("SMTP send latency per message")
+                .register(this.meterRegistry);
+        this.failures = this.meterRegistry.counter("mail.send.failures");
+        this.retries = this.meterRegistry.counter("mail.send.retries");
+        this.rejected = this.meterRegistry.counter("mail.rejected");
+
+        this.running = true;
+        for (int i = 0; i < this.workers; i++) {
+            this.startWorker("mail-worker-" + i, this.queue, this.nextSendAt);
+        }
+        for (int i = 0; i < this.priorityWorkers; i++) {
+            this.startWorker("mail-priority-" + i, this.priorityQueue, this.priorityNextSendAt);
+        }
+    }
+
+    private void startWorker(String name, BlockingQueue<Delivery> source, AtomicLong limiter) {
+        Thread thread = new Thread(() -> this.work(source, limiter), name);
+        thread.setDaemon(true);
+        thread.start();
+        this.threads.add(thread);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        // worker gui not phan con lai trong hang doi roi dung
+        this.running = false;
+        for (Thread thread : this.threads) {
+            thread.join(10_000);
+        }
+        List<Delivery> left = new ArrayList<>();
+        this.queue.drainTo(left);
+        this.priorityQueue.drainTo(left);
+        if (!left.isEmpty()) {
+            logger.warn("Mail pipeline stopped with {} messages still queued", left.size());
+            left.forEach(d -> d.result().completeExceptionally(new IllegalStateException("Mail pipeline stopped")));
+        }
+    }
+
+    private record Delivery(MimeMessage message, CompletableFuture<Void> result) {
+    }
+
+    /**
+     * Dua thu vao hang doi. Hang doi day thi cho toi da enqueue-timeout-ms (nguoi goi
+     * bi cham lai thay vi tao them thread), het thoi gian thi bo thu.
+     *
+     * Ket qua hoan thanh khi thu da gui xong, hoac loi khi bi bo / het so lan thu.
+     */
+    public CompletableFuture<Void> submit(MimeMessage message) {
+        return this.offer(this.queue, message);
+    }
+
+    // Nhu submit() nhung qua lan uu tien (email giao dich)
+    public CompletableFuture<Void> submitPriority(MimeMessage message) {
+        return this.offer(this.priorityQueue, message);
+    }
+
+    private CompletableFuture<Void> offer(BlockingQueue<Delivery> target, MimeMessage message) {
+        Delivery delivery = new Delivery(message, new CompletableFuture<>());
+        try {
+            if (this.running && target.offer(delivery, this.enqueueTimeoutMs, TimeUnit.MILLISECONDS)) {
+                return delivery.result();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        this.rejected.increment();
+        logger.warn("Mail queue full, dropping message to {}", recipients(message));
+        delivery.result().completeExceptionally(new IllegalStateException("Mail queue is full"));
+        return delivery.result();
+    }
+
+    private void work(BlockingQueue<Delivery> source, AtomicLong limiter) {
+        Transport transport = null;
+        long lastUsed = 0;
+        List<Delivery> batch = new ArrayList<>(this.batchSize);
+        while (this.running || !source.isEmpty()) {
+            try {
+                Delivery first = source.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    if (transport != null && System.currentTimeMillis() - lastUsed > this.idleTimeoutMs) {
+                        close(transport);
+                        transport = null;
+                    }
+                    continue;
+                }
+                batch.add(first);
+                source.drainTo(batch, this.batchSize - 1);
+                for (Delivery delivery : batch) {
+                    transport = this.deliver(transport, delivery, limiter);
+                }
+                lastUsed = System.currentTimeMillis();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+        close(transport);
+    }
+
+    // gui mot thu, thu lai khi loi; tra ve transport con dung duoc (hoac null)
+    private Transport deliver(Transport transport, Delivery delivery, AtomicLong limiter)
+            throws InterruptedException {
+        MimeMessage message = delivery.message();
+        for (int attempt = 1;; attempt++) {
+            this.acquirePermit(limiter);
+            long start = System.nanoTime();
+            try {
+                if (transport == null || !transport.isConnected()) {
+                    close(transport);
+                    transport = this.connect();
+                }
+                if (transport == null) {
+                    this.javaMailSender.send(message);
+                } else {
+                    // giong JavaMailSenderImpl.doSend
+                    if (message.getSentDate() == null) {
+                        message.setSentDate(new Date());
+                    }
+                    String messageId = message.getMessageID();
+                    message.saveChanges();
+                    if (messageId != null) {
+                        message.setHeader("Message-ID", messageId);
+                    }
+                    transport.sendMessage(message, message.getAllRecipients());
+                }
+                this.sendTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                delivery.result().complete(null);
+                return transport;
+            } catch (MessagingException | RuntimeException e) {
+                // ket noi co the da hong: mo lai o lan sau
+                close(transport);
+                transport = null;
+                if (attempt >= this.maxAttempts) {
+                    this.failures.increment();
+                    logger.error("Could not send mail to {} after {} attempts", recipients(message), attempt, e);
+                    delivery.result().completeExceptionally(e);
+                    return null;
+                }
+                this.retries.increment();
+                long backoff = this.backoffMs << (attempt - 1);
+                logger.warn("Send mail to {} failed (attempt {}), retrying in {} ms: {}",
+                        recipients(message), attempt, backoff, e.getMessage());
+                Thread.sleep(backoff);
+            }
+        }
+    }
+
+    // Ket noi giong JavaMailSenderImpl.connectTransport; null neu khong phai JavaMailSenderImpl
+    private Transport connect() throws MessagingException {
+        if (!(this.javaMailSender instanceof JavaMailSenderImpl sender)) {
+            return null;
+        }
+        Transport transport = sender.getSession().getTransport(sender.getProtocol());
+        transport.connect(sender.getHost(), sender.getPort(), sender.getUsername(), sender.getPassword());
+        return transport;
+    }
+
+    private void acquirePermit(AtomicLong limiter) throws InterruptedException {
+        if (this.ratePerSecond <= 0) {
+            return;
+        }
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) / this.ratePerSecond);
+        long now = System.nanoTime();
+        long slot = limiter.getAndUpdate(next -> Math.max(next, now) + interval);
+        long wait = Math.max(slot, now) - now;
+        if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+    }
+
+    private static void close(Transport transport) {
+        if (transport == null) {
+            return;
+        }
+        try {
+            transport.close();
+        } catch (MessagingException e) {
+            logger.debug("Error closing SMTP transport", e);
+        }
+    }
+
+    private static String recipients(MimeMessage message) {
+        try {
+            return String.valueOf(List.of(message.getAllRecipients()));
+        } catch (MessagingException | RuntimeException e) {
+            return "?";
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package vn.ctiep.jobhunter.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import vn.ctiep.jobhunter.domain.event.PermissionChangedEvent;
+import vn.ctiep.jobhunter.domain.event.RoleChangedEvent;
+import vn.ctiep.jobhunter.domain.event.UserChangedEvent;
+import vn.ctiep.jobhunter.repository.RoleRepository;
+import vn.ctiep.jobhunter.repository.UserRepository;
+
+/**
+ * Ma tran phan quyen trong bo nho: role id -> api path -> bitmask cac HTTP method.
+ *
+ * Dung mot lan tu mot cau SQL, khong sua sau khi dung; kiem tra quyen chi la 2 lan
+ * tra HashMap va mot phep AND. Sau khi role/permission thay doi (commit xong) ma
+ * tran bi bo va dung lai o request sau; cac node khac nhan thong bao qua Redis
+ * pub/sub va lam tuong tu.
+ *
+ * Role cua user lay o server (user id -> role id, cache trong bo nho), khong lay tu
+ * access token: doi / go role cua user co hieu luc ngay o request sau tren moi node
+ * (UserChangedEvent bo cache, cung kenh pub/sub) thay vi doi token het han.
+ */
+@Service
+public class PermissionMatrixService {
+    private static final Logger logger = LoggerFactory.getLogger(PermissionMatrixService.class);
+
+    public static final String INVALIDATION_CHANNEL = "permission:invalidate";
+    // thong bao bo role cache cua mot user: "user:<id>"; con lai la bo ca ma tran
+    private static final String USER_MESSAGE = "user:";
+    // user khong co role
+    private static final long NO_ROLE = -1L;
+
+    private final RoleRepository roleRepository;
+    private final UserRepository userRepository;
+    private final StringRedisTemplate stringRedisTemplate;
+
+    // user id -> role id (NO_ROLE neu khong co); het han de phong mat thong bao pub/sub
+    private final Cache<Long, Long> userRoles = Caffeine.newBuilder()
+            .maximumSize(100_000)
+            .expireAfterWrite(Duration.ofMinutes(10))
+            .build();
+
+    // null: chua dung hoac vua bi bo
+    private volatile Map<Long, Map<String, Integer>> matrix;
+    // tang moi lan bo ma tran; ban dung xong sau khi bi bo thi khong giu lai
+    private final AtomicLong generation = new AtomicLong();
+
+    public PermissionMatrixService(RoleRepository roleRepository, UserRepository userRepository,
+            StringRedisTemplate stringRedisTemplate, RedisMessageListenerContainer listenerContainer) {
+        this.roleRepository = roleRepository;
+        this.userRepository = userRepository;
+        this.stringRedisTemplate = stringRedisTemplate;
+        listenerContainer.addMessageListener((message, pattern) -> this.onMessage(
+                new String(message.getBody(), StandardCharsets.UTF_8)), new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+
+    // Kiem tra quyen theo role hien tai cua user trong DB
+    public boolean isAllowedForUser(long userId, String method, String apiPath) {
+        long roleId = this.userRoles.get(userId,
+                id -> this.userRepository.findRoleIdById(id).orElse(NO_ROLE));
+        return roleId != NO_ROLE && this.isAllowed(roleId, method, apiPath);
+    }
+
+    public boolean isAllowed(Long roleId, String method, String apiPath) {
+        if (roleId == null || apiPath == null) {
+            return false;
+        }
+        Map<String, Integer> paths = this.matrix().get(roleId);
+        if (paths == null) {
+            return false;
+        }
+        Integer methods = paths.get(apiPath);
+        return methods != null && (methods & methodBit(method)) != 0;
+    }
+
+    private Map<Long, Map<String, Integer>> matrix() {
+        Map<Long, Map<String, Integer>> current = this.matrix;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            current = this.matrix;
+            if (current == null) {
+                long gen = this.generation.get();
+                current = this.build();
+                if (this.generation.get() == gen) {
+                    this.matrix = current;
+                }
+            }
+            return current;
+        }
+    }
+
+    private Map<Long, Map<String, Integer>> build() {
+        long start = System.currentTimeMillis();
+        Map<Long, Map<String, Integer>> built = new HashMap<>();
+        int rules = 0;
+        for (Object[] row : this.roleRepository.findAllPermissionRules()) {
+            Long roleId = (Long) row[0];
+            String method = (String) row[1];
+            String apiPath = (String) row[2];
+            int bit = methodBit(method);
+            if (bit == 0 || apiPath == null) {
+                logger.warn("Ignoring permission rule {} {} of role {}", method, apiPath, roleId);
+                continue;
+            }
+            built.computeIfAbsent(roleId, k -> new HashMap<>()).merge(apiPath, bit, (a, b) -> a | b);
+            rules++;
+        }
+        Map<Long, Map<String, Integer>> frozen = new HashMap<>();
+        built.forEach((roleId, paths) -> frozen.put(roleId, Map.copyOf(paths)));
+        logger.info("Built permission matrix: {} roles, {} rules in {} ms", frozen.size(), rules,
+                System.currentTimeMillis() - start);
+        return Map.copyOf(frozen);
+    }
+
+    private static int methodBit(String method) {
+        if (method == null) {
+            return 0;
+        }
+        return switch (method) {
+            case "GET" -> 1;
+            case "POST" -> 1 << 1;
+            case "PUT" -> 1 << 2;
+            case "PATCH" -> 1 << 3;
+            case "DELETE" -> 1 << 4;
+            case "HEAD" -> 1 << 5;
+            case "OPTIONS" -> 1 << 6;
+            default -> 0;
+        };
+    }
+
+    private void onMessage(String message) {
+        if (message.startsWith(USER_MESSAGE)) {
+            try {
+                this.userRoles.invalidate(Long.valueOf(message.substring(USER_MESSAGE.length())));
+                return;
+            } catch (NumberFormatException e) {
+                logger.warn("Bad permission invalidation message {}", message);
+            }
+        }
+        this.invalidateLocal();
+    }
+
+    private void invalidateLocal() {
+        this.generation.incrementAndGet();
+        this.matrix = null;
+        // xoa role co the lam user mat role
+        this.userRoles.invalidateAll();
+    }
+
+    private void invalidateAll() {
+        this.invalidateLocal();
+        this.publish("*");
+    }
+
+    private void publish(String message) {
+        try {
+            this.stringRedisTemplate.convertAndSend(INVALIDATION_CHANNEL, message);
+        } catch (RuntimeException e) {
+            logger.warn("Could not publish permission matrix invalidation", e);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRoleChanged(RoleChangedEvent event) {
+        this.invalidateAll();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        this.userRoles.invalidate(event.getUserId());
+        this.publish(USER_MESSAGE + event.getUserId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPermissionChanged(PermissionChangedEvent event) {
+        this.invalidateAll();
+    }
+}
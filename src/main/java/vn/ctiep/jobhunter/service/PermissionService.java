@@ -1,22 +1,28 @@
 package vn.ctiep.jobhunter.service;
 
 import java.util.Optional;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
 import vn.ctiep.jobhunter.domain.Permission;
+import vn.ctiep.jobhunter.domain.event.PermissionChangedEvent;
 import vn.ctiep.jobhunter.domain.response.ResultPaginationDTO;
 import vn.ctiep.jobhunter.repository.PermissionRepository;
+import vn.ctiep.jobhunter.util.KeysetPaginationUtil;
+import vn.ctiep.jobhunter.util.error.IdInvalidException;
 
 @Service
 public class PermissionService {
 
     private final PermissionRepository permissionRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public PermissionService(PermissionRepository permissionRepository) {
+    public PermissionService(PermissionRepository permissionRepository, ApplicationEventPublisher eventPublisher) {
         this.permissionRepository = permissionRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     public boolean isPermissionExist(Permission p) {
@@ -47,6 +53,8 @@ public class PermissionService {
 
             // update
             permissionDB = this.permissionRepository.save(permissionDB);
+            // path/method doi thi ma tran cua moi role co quyen nay doi theo
+            this.eventPublisher.publishEvent(new PermissionChangedEvent(permissionDB.getId()));
             return permissionDB;
         }
         return null;
@@ -60,9 +68,14 @@ public class PermissionService {
 
         // delete permission
         this.permissionRepository.delete(currentPermission);
+        this.eventPublisher.publishEvent(new PermissionChangedEvent(id));
     }
 
-    public ResultPaginationDTO getPermissions(Specification<Permission> spec, Pageable pageable) {
+    public ResultPaginationDTO getPermissions(Specification<Permission> spec, Pageable pageable, String cursor,
+            boolean withTotal) throws IdInvalidException {
+        if (cursor != null) {
+            return KeysetPaginationUtil.fetch(this.permissionRepository, spec, cursor, pageable, withTotal, permission -> permission);
+        }
         Page<Permission> pPermissions = this.permissionRepository.findAll(spec, pageable);
         ResultPaginationDTO rs = new ResultPaginationDTO();
         ResultPaginationDTO.Meta mt = new ResultPaginationDTO.Meta();
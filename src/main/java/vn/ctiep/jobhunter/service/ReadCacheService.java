@@ -0,0 +1,96 @@
+package vn.ctiep.jobhunter.service;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.turkraft.springfilter.converter.FilterSpecification;
+import com.turkraft.springfilter.converter.FilterStringConverter;
+
+import vn.ctiep.jobhunter.config.CacheConfig;
+import vn.ctiep.jobhunter.domain.event.CompanyChangedEvent;
+import vn.ctiep.jobhunter.domain.event.JobChangedEvent;
+import vn.ctiep.jobhunter.domain.event.SkillChangedEvent;
+import vn.ctiep.jobhunter.util.error.IdInvalidException;
+
+/**
+ * Doc/ghi cache cho cac API GET cong khai va xoa cache khi job/company/skill thay doi.
+ */
+@Service
+public class ReadCacheService {
+
+    private final CacheManager cacheManager;
+    private final FilterStringConverter filterStringConverter;
+
+    public ReadCacheService(CacheManager cacheManager, FilterStringConverter filterStringConverter) {
+        this.cacheManager = cacheManager;
+        this.filterStringConverter = filterStringConverter;
+    }
+
+    @FunctionalInterface
+    public interface Loader<T> {
+        T load() throws IdInvalidException;
+    }
+
+    // key luon la chuoi vi thong bao xoa qua pub/sub cung gui key dang chuoi.
+    // Cache.get(key, loader): request trung key cho chung mot lan nap
+    public <T> T getOrLoad(String cacheName, String key, Loader<T> loader) throws IdInvalidException {
+        Cache cache = this.cacheManager.getCache(cacheName);
+        if (cache == null || key == null) {
+            return loader.load();
+        }
+        try {
+            return cache.get(key, loader::load);
+        } catch (Cache.ValueRetrievalException e) {
+            if (e.getCause() instanceof IdInvalidException idInvalid) {
+                throw idInvalid;
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Key cho cache danh sach: filter (dang chuoi chuan hoa) + phan trang. Tra ve null
+     * (khong cache) neu spec khong phai filter tu query string.
+     */
+    public String listKey(Specification<?> spec, Pageable pageable, String cursor, boolean withTotal) {
+        String filter = "";
+        if (spec instanceof FilterSpecification<?> filterSpec) {
+            filter = this.filterStringConverter.convert(filterSpec.getFilter());
+        } else if (spec != null) {
+            return null;
+        }
+        String page = pageable.isPaged() ? pageable.getPageNumber() + "," + pageable.getPageSize() : "all";
+        return filter + "|" + page + "|" + pageable.getSort() + "|" + cursor + "|" + withTotal;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onJobChanged(JobChangedEvent event) {
+        Cache jobDetail = this.cacheManager.getCache(CacheConfig.JOB_DETAIL);
+        for (Long id : event.getJobIds()) {
+            jobDetail.evict(String.valueOf(id));
+        }
+        this.cacheManager.getCache(CacheConfig.JOB_LIST).clear();
+    }
+
+    // job nhung thong tin company nen xoa ca cache job
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCompanyChanged(CompanyChangedEvent event) {
+        this.cacheManager.getCache(CacheConfig.COMPANY_DETAIL).evict(String.valueOf(event.getCompanyId()));
+        this.cacheManager.getCache(CacheConfig.JOB_DETAIL).clear();
+        this.cacheManager.getCache(CacheConfig.JOB_LIST).clear();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSkillChanged(SkillChangedEvent event) {
+        this.cacheManager.getCache(CacheConfig.SKILL_LIST).clear();
+        this.cacheManager.getCache(CacheConfig.JOB_DETAIL).clear();
+        this.cacheManager.getCache(CacheConfig.JOB_LIST).clear();
+    }
+}
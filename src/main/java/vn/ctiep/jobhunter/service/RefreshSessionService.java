@@ -0,0 +1,115 @@
+package vn.ctiep.jobhunter.service;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+
+/**
+ * Phien refresh token luu tren Redis, khong ghi bang users.
+ *
+ * Moi lan dang nhap tao mot phien (id ngau nhien, nam trong claim jti cua refresh
+ * token) song refresh-token-validity-in-seconds; mot user co the co nhieu phien
+ * (nhieu thiet bi). Refresh doi phien cu sang phien moi trong mot script Lua: token
+ * cu chi dung duoc mot lan, hai request refresh dong thoi chi mot cai thanh cong.
+ *
+ * Key: refresh_session:{userId}:<id> = email, refresh_sessions:{userId} = set id
+ * cac phien cua user (de dang xuat moi noi). {userId} giu cac key cua mot user
+ * cung slot khi chay Redis Cluster.
+ */
+@Service
+public class RefreshSessionService {
+    private static final String SESSION_KEY = "refresh_session:";
+    private static final String USER_SESSIONS_KEY = "refresh_sessions:";
+
+    // set id cua user lon hon nguong thi bo cac id da het han
+    private static final int PRUNE_THRESHOLD = 32;
+
+    // KEYS: phien moi, set cua user; ARGV: email, ttl, id moi, prefix key phien, nguong
+    private static final DefaultRedisScript<Long> CREATE_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('SET', KEYS[1], ARGV[1], 'EX', ARGV[2]) "
+                    + "redis.call('SADD', KEYS[2], ARGV[3]) "
+                    + "redis.call('EXPIRE', KEYS[2], ARGV[2]) "
+                    + "if redis.call('SCARD', KEYS[2]) > tonumber(ARGV[5]) then "
+                    + "  for _, id in ipairs(redis.call('SMEMBERS', KEYS[2])) do "
+                    + "    if redis.call('EXISTS', ARGV[4] .. id) == 0 then redis.call('SREM', KEYS[2], id) end "
+                    + "  end "
+                    + "end "
+                    + "return 1",
+            Long.class);
+
+    // KEYS: phien cu, phien moi, set cua user; ARGV: email, ttl, id cu, id moi
+    private static final DefaultRedisScript<Long> ROTATE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) ~= ARGV[1] then return 0 end "
+                    + "redis.call('DEL', KEYS[1]) "
+                    + "redis.call('SREM', KEYS[3], ARGV[3]) "
+                    + "redis.call('SET', KEYS[2], ARGV[1], 'EX', ARGV[2]) "
+                    + "redis.call('SADD', KEYS[3], ARGV[4]) "
+                    + "redis.call('EXPIRE', KEYS[3], ARGV[2]) "
+                    + "return 1",
+            Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    @Value("${ctiep.jwt.refresh-token-validity-in-seconds}")
+    private long refreshTokenExpiration;
+
+    public RefreshSessionService(StringRedisTemplate stringRedisTemplate) {
+        this.stringRedisTemplate = stringRedisTemplate;
+    }
+
+    // Tao phien moi, tra ve id dat vao claim jti
+    public String create(long userId, String email) {
+        String sessionId = newSessionId();
+        this.stringRedisTemplate.execute(CREATE_SCRIPT,
+                List.of(sessionKey(userId, sessionId), userSessionsKey(userId)),
+                email, String.valueOf(this.refreshTokenExpiration), sessionId, sessionKey(userId, ""),
+                String.valueOf(PRUNE_THRESHOLD));
+        return sessionId;
+    }
+
+    /**
+     * Thay phien sessionId bang phien moi. null neu phien khong ton tai (da dung,
+     * da dang xuat, het han) hoac khong thuoc email nay.
+     */
+    public String rotate(long userId, String email, String sessionId) {
+        String newSessionId = newSessionId();
+        Long rotated = this.stringRedisTemplate.execute(ROTATE_SCRIPT,
+                List.of(sessionKey(userId, sessionId), sessionKey(userId, newSessionId), userSessionsKey(userId)),
+                email, String.valueOf(this.refreshTokenExpiration), sessionId, newSessionId);
+        return rotated != null && rotated == 1 ? newSessionId : null;
+    }
+
+    public void revoke(long userId, String sessionId) {
+        this.stringRedisTemplate.delete(sessionKey(userId, sessionId));
+        this.stringRedisTemplate.opsForSet().remove(userSessionsKey(userId), sessionId);
+    }
+
+    // Dang xuat moi thiet bi; tra ve so phien da xoa
+    public int revokeAll(long userId) {
+        Set<String> sessionIds = this.stringRedisTemplate.opsForSet().members(userSessionsKey(userId));
+        if (sessionIds == null || sessionIds.isEmpty()) {
+            return 0;
+        }
+        List<String> keys = sessionIds.stream().map(id -> sessionKey(userId, id)).toList();
+        Long deleted = this.stringRedisTemplate.delete(keys);
+        this.stringRedisTemplate.opsForSet().remove(userSessionsKey(userId), sessionIds.toArray());
+        return deleted == null ? 0 : deleted.intValue();
+    }
+
+    private static String newSessionId() {
+        return UUID.randomUUID().toString().replace("-", "");
+    }
+
+    private static String sessionKey(long userId, String sessionId) {
+        return SESSION_KEY + "{" + userId + "}:" + sessionId;
+    }
+
+    private static String userSessionsKey(long userId) {
+        return USER_SESSIONS_KEY + "{" + userId + "}";
+    }
+}
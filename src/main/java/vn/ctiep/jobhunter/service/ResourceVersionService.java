@@ -0,0 +1,135 @@
+package vn.ctiep.jobhunter.service;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import vn.ctiep.jobhunter.config.CacheConfig;
+import vn.ctiep.jobhunter.domain.event.CompanyChangedEvent;
+import vn.ctiep.jobhunter.domain.event.JobChangedEvent;
+import vn.ctiep.jobhunter.domain.event.SkillChangedEvent;
+import vn.ctiep.jobhunter.repository.CompanyRepository;
+import vn.ctiep.jobhunter.repository.JobRepository;
+import vn.ctiep.jobhunter.util.error.IdInvalidException;
+
+/**
+ * ETag cho trang chi tiet (tu cot version) va moc thoi gian thay doi cuoi cung cua
+ * tung bang cho If-Modified-Since tren API danh sach.
+ *
+ * ETag duoc giu trong cache "resourceVersion" nen request co If-None-Match tra 304
+ * ma khong can nap/serialize entity. Moc thoi gian luu o Redis (don vi giay, chung
+ * cho moi node) va tang sau moi lan commit thay doi.
+ */
+@Service
+public class ResourceVersionService {
+    private static final Logger logger = LoggerFactory.getLogger(ResourceVersionService.class);
+
+    public static final String JOBS = "jobs";
+    public static final String COMPANIES = "companies";
+    public static final String SKILLS = "skills";
+
+    private static final String WATERMARK_KEY = "watermark:";
+
+    // Last-Modified chi chinh xac den giay: moi lan doi phai tang it nhat 1 giay,
+    // neu khong client vua doc trong cung giay se nhan 304 sai
+    private static final DefaultRedisScript<Long> BUMP_SCRIPT = new DefaultRedisScript<>(
+            "local cur = tonumber(redis.call('GET', KEYS[1]) or '0') "
+                    + "local now = tonumber(ARGV[1]) "
+                    + "if now <= cur then now = cur + 1 end "
+                    + "redis.call('SET', KEYS[1], now) "
+                    + "return now",
+            Long.class);
+
+    private final JobRepository jobRepository;
+    private final CompanyRepository companyRepository;
+    private final ReadCacheService readCacheService;
+    private final CacheManager cacheManager;
+    private final StringRedisTemplate stringRedisTemplate;
+
+    public ResourceVersionService(JobRepository jobRepository, CompanyRepository companyRepository,
+            ReadCacheService readCacheService, CacheManager cacheManager, StringRedisTemplate stringRedisTemplate) {
+        this.jobRepository = jobRepository;
+        this.companyRepository = companyRepository;
+        this.readCacheService = readCacheService;
+        this.cacheManager = cacheManager;
+        this.stringRedisTemplate = stringRedisTemplate;
+    }
+
+    // null neu job khong ton tai
+    public String jobETag(long id) throws IdInvalidException {
+        return this.readCacheService.getOrLoad(CacheConfig.RESOURCE_VERSION, "job:" + id, () -> {
+            List<Object[]> rows = this.jobRepository.findVersionStampById(id);
+            if (rows.isEmpty()) {
+                return null;
+            }
+            Object[] row = rows.get(0);
+            return "job-" + id + "-" + row[0] + "." + row[1] + "." + row[2] + "." + row[3];
+        });
+    }
+
+    public String companyETag(long id) throws IdInvalidException {
+        return this.readCacheService.getOrLoad(CacheConfig.RESOURCE_VERSION, "company:" + id,
+                () -> this.companyRepository.findVersionById(id).map(v -> "company-" + id + "-" + v).orElse(null));
+    }
+
+    /**
+     * Thoi diem thay doi cuoi cung (epoch millis) cua cac bang, lay lon nhat. -1 neu
+     * khong doc duoc Redis (bo qua If-Modified-Since).
+     */
+    public long lastModified(String... tables) {
+        long max = -1;
+        try {
+            for (String table : tables) {
+                String key = WATERMARK_KEY + table;
+                String value = this.stringRedisTemplate.opsForValue().get(key);
+                if (value == null) {
+                    // chua co moc: coi nhu vua thay doi
+                    this.stringRedisTemplate.opsForValue().setIfAbsent(key,
+                            String.valueOf(System.currentTimeMillis() / 1000));
+                    value = this.stringRedisTemplate.opsForValue().get(key);
+                }
+                max = Math.max(max, Long.parseLong(value) * 1000);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Could not read change watermark for {}", String.join(",", tables), e);
+            return -1;
+        }
+        return max;
+    }
+
+    private void bump(String table) {
+        try {
+            this.stringRedisTemplate.execute(BUMP_SCRIPT, List.of(WATERMARK_KEY + table),
+                    String.valueOf(System.currentTimeMillis() / 1000));
+        } catch (RuntimeException e) {
+            logger.warn("Could not bump change watermark for {}", table, e);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onJobChanged(JobChangedEvent event) {
+        for (Long id : event.getJobIds()) {
+            this.cacheManager.getCache(CacheConfig.RESOURCE_VERSION).evict("job:" + id);
+        }
+        this.bump(JOBS);
+    }
+
+    // ETag cua job gom version company/skill nen xoa het
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCompanyChanged(CompanyChangedEvent event) {
+        this.cacheManager.getCache(CacheConfig.RESOURCE_VERSION).clear();
+        this.bump(COMPANIES);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSkillChanged(SkillChangedEvent event) {
+        this.cacheManager.getCache(CacheConfig.RESOURCE_VERSION).clear();
+        this.bump(SKILLS);
+    }
+}
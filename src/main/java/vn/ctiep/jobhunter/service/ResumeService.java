@@ -1,8 +1,13 @@
 package vn.ctiep.jobhunter.service;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.repository.query.Param;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -10,14 +15,13 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.turkraft.springfilter.builder.FilterBuilder;
-import com.turkraft.springfilter.converter.FilterSpecification;
-import com.turkraft.springfilter.converter.FilterSpecificationConverter;
-import com.turkraft.springfilter.parser.FilterParser;
-import com.turkraft.springfilter.parser.node.FilterNode;
 
+import vn.ctiep.jobhunter.domain.Company;
 import vn.ctiep.jobhunter.domain.Job;
 import vn.ctiep.jobhunter.domain.Resume;
 import vn.ctiep.jobhunter.domain.User;
+import vn.ctiep.jobhunter.domain.event.JobChangedEvent;
+import vn.ctiep.jobhunter.domain.response.ResLoginDTO;
 import vn.ctiep.jobhunter.domain.response.ResultPaginationDTO;
 import vn.ctiep.jobhunter.domain.response.job.ResCreateJobDTO;
 import vn.ctiep.jobhunter.domain.response.resume.ResCreateResumeDTO;
@@ -27,33 +31,43 @@ import vn.ctiep.jobhunter.repository.JobRepository;
 import vn.ctiep.jobhunter.repository.ResumeRepository;
 import vn.ctiep.jobhunter.repository.UserRepository;
 import vn.ctiep.jobhunter.util.SecurityUtil;
+import vn.ctiep.jobhunter.util.KeysetPaginationUtil;
 import vn.ctiep.jobhunter.util.constant.ResumeStateEnum;
+import vn.ctiep.jobhunter.util.annotation.SchedulerLock;
 import vn.ctiep.jobhunter.util.error.IdInvalidException;
 
 import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
 import java.util.Optional;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
 public class ResumeService {
+    private static final Logger logger = LoggerFactory.getLogger(ResumeService.class);
+
+    // thu tu duy nhat cua "resume cua toi" (idx_resumes_user_active_created)
+    private static final Sort MY_RESUMES_SORT = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
 
     private final ResumeRepository resumeRepository;
     private final UserRepository userRepository;
     private final JobRepository jobRepository;
+    private final EmailOutboxService emailOutboxService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
     FilterBuilder fb;
-    @Autowired
-    private FilterParser filterParser;
-    @Autowired
-    private FilterSpecificationConverter filterSpecificationConverter;
 
     public ResumeService(ResumeRepository resumeRepository, UserRepository userRepository,
-            JobRepository jobRepository) {
+            JobRepository jobRepository, EmailOutboxService emailOutboxService,
+            ApplicationEventPublisher eventPublisher) {
         this.resumeRepository = resumeRepository;
         this.userRepository = userRepository;
         this.jobRepository = jobRepository;
+        this.emailOutboxService = emailOutboxService;
+        this.eventPublisher = eventPublisher;
     }
 
     public Optional<Resume> fetchById(long id) {
@@ -90,6 +104,11 @@ public class ResumeService {
 
     public ResCreateResumeDTO create(Resume resume) {
         resume = this.resumeRepository.save(resume);
+        if (resume.getJob() != null) {
+            ResumeStateEnum status = resume.getStatus();
+            this.jobRepository.findById(resume.getJob().getId()).ifPresent(
+                    job -> this.eventPublisher.publishEvent(StatsCounterService.resumeCreated(job, status)));
+        }
 
         ResCreateResumeDTO res = new ResCreateResumeDTO();
         res.setId(resume.getId());
@@ -109,12 +128,103 @@ public class ResumeService {
         return res;
     }
 
+    /**
+     * Chuyen resume sang trang thai moi, luu va ghi email thong bao vao outbox trong
+     * cung transaction. Trang thai doi bang UPDATE co dieu kien (status = trang thai
+     * vua doc): hai request doi cung mot resume thi chi mot request thanh cong, nen
+     * suat tuyen chi giu / tra mot lan. Vao HIRED thi giu mot suat cua job bang mot
+     * UPDATE co dieu kien (hired_count < quantity) nen tuyen cung luc khong vuot quantity.
+     */
+    @Transactional
+    public ResUpdateResumeDTO updateStatus(Resume resume, ResumeStateEnum status) throws IdInvalidException {
+        ResumeStateEnum previous = resume.getStatus();
+        long jobId = resume.getJob().getId();
+        if (previous != status
+                && this.resumeRepository.updateStatusIfCurrent(resume.getId(), previous, status, Instant.now()) == 0) {
+            throw new IdInvalidException("Trạng thái hồ sơ đã được thay đổi, vui lòng tải lại.");
+        }
+        // resume da xoa mem khong giu suat (da tra khi xoa)
+        boolean holdsSlot = resume.isActive();
+        if (holdsSlot && status == ResumeStateEnum.HIRED && previous != ResumeStateEnum.HIRED) {
+            if (!this.reserveHire(jobId)) {
+                throw new IdInvalidException("Số lượng ứng viên đã đạt giới hạn cho công việc này.");
+            }
+        } else if (holdsSlot && previous == ResumeStateEnum.HIRED && status != ResumeStateEnum.HIRED) {
+            this.releaseHire(jobId);
+        }
+        resume.setStatus(status);
+
+        ResUpdateResumeDTO res = this.update(resume);
+        this.eventPublisher.publishEvent(StatsCounterService.resumeStatusChanged(resume.getJob(), previous, status));
+        this.queueStatusEmail(resume);
+        if (status == ResumeStateEnum.HIRED && previous != ResumeStateEnum.HIRED && this.closeJobIfHiredFull(jobId, resume.getJob().getCompany())) {
+            res.setMessage("Đã tuyển đủ số lượng ứng viên cho công việc này.");
+        }
+        return res;
+    }
+
+    private void queueStatusEmail(Resume resume) {
+        String template;
+        String subject;
+        switch (resume.getStatus()) {
+            case APPROVED:
+                template = "interview-invitation";
+                subject = "Thư mời phỏng vấn";
+                break;
+            case PASSED:
+                template = "interview-passed";
+                subject = "Kết quả phỏng vấn";
+                break;
+            case FAILED:
+                template = "interview-failed";
+                subject = "Kết quả phỏng vấn";
+                break;
+            case HIRED:
+                template = "hired";
+                subject = "Chúc mừng bạn đã được tuyển dụng";
+                break;
+            default:
+                return;
+        }
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("name", resume.getUser().getName());
+        variables.put("jobTitle", resume.getJob().getName());
+        variables.put("companyName", resume.getJob().getCompany().getName());
+        if (resume.getStatus() == ResumeStateEnum.APPROVED || resume.getStatus() == ResumeStateEnum.PASSED) {
+            variables.put("confirmationUrl", "http://localhost:5173/" + resume.getId()); // frontend xử lý confirm
+        }
+        this.emailOutboxService.enqueue(resume.getEmail(), subject, template, variables);
+    }
+
+    @Transactional
     public void delete(long id) {
         Optional<Resume> resumeOptional = this.resumeRepository.findById(id);
         if (resumeOptional.isPresent()) {
-            Resume resume = resumeOptional.get();
-            resume.setActive(false);
-            this.resumeRepository.save(resume);
+            this.softDelete(resumeOptional.get());
+        }
+    }
+
+    // xoa mem; resume HIRED dang giu suat thi tra suat cho job
+    private void softDelete(Resume resume) {
+        if (resume.isActive() && resume.getStatus() == ResumeStateEnum.HIRED && resume.getJob() != null) {
+            this.releaseHire(resume.getJob().getId());
+        }
+        resume.setActive(false);
+        this.resumeRepository.save(resume);
+    }
+
+    // hired_count la du lieu cua job: bao cho chi muc / cache / thong ke nhu moi thay doi job khac
+    private boolean reserveHire(long jobId) {
+        if (this.jobRepository.reserveHire(jobId) == 0) {
+            return false;
+        }
+        this.eventPublisher.publishEvent(new JobChangedEvent(jobId));
+        return true;
+    }
+
+    private void releaseHire(long jobId) {
+        if (this.jobRepository.releaseHire(jobId) == 1) {
+            this.eventPublisher.publishEvent(new JobChangedEvent(jobId));
         }
     }
 
@@ -137,7 +247,12 @@ public class ResumeService {
         return res;
     }
 
-    public ResultPaginationDTO fetchAllResume(Specification<Resume> spec, Pageable pageable) {
+    public ResultPaginationDTO fetchAllResume(Specification<Resume> spec, Pageable pageable, String cursor,
+            boolean withTotal) throws IdInvalidException {
+        if (cursor != null) {
+            return KeysetPaginationUtil.fetch(this.resumeRepository, spec, cursor, pageable, withTotal,
+                    ResumeRepository.LISTING_GRAPH, this::getResume);
+        }
         Page<Resume> pageUser = this.resumeRepository.findAll(spec, pageable);
         ResultPaginationDTO rs = new ResultPaginationDTO();
         ResultPaginationDTO.Meta mt = new ResultPaginationDTO.Meta();
@@ -159,46 +274,102 @@ public class ResumeService {
         return rs;
     }
 
-    public ResultPaginationDTO fetchResumeByUser(Pageable pageable) {
-        // query builder
-        String email = SecurityUtil.getCurrentUserLogin().isPresent() == true ? SecurityUtil.getCurrentUserLogin().get()
-                : "";
-        FilterNode node = filterParser.parse("email='" + email + "' and active=true");
-        FilterSpecification<Resume> spec = filterSpecificationConverter.convert(node);
-        Page<Resume> pageResume = this.resumeRepository.findAll(spec, pageable);
+    /**
+     * Resume cua nguoi dang dang nhap (user id trong JWT), moi nhat truoc. Khong co cursor:
+     * trang theo so nhu cu (kem total); co cursor: trang sau (createdAt, id) khong OFFSET,
+     * COUNT chi khi withTotal.
+     *
+     * Thu tu co dinh createdAt desc, id desc (theo chi muc); tham so sort khac bi tu choi.
+     */
+    public ResultPaginationDTO fetchResumeByUser(Pageable pageable, String cursor, boolean withTotal)
+            throws IdInvalidException {
+        long userId = SecurityUtil.getCurrentUserInsideToken()
+                .map(ResLoginDTO.UserInsideToken::getId)
+                .orElseThrow(() -> new IdInvalidException("Không tìm thấy thông tin người dùng"));
+        if (pageable.getSort().isSorted() && !MY_RESUMES_SORT.equals(pageable.getSort())
+                && !Sort.by(Sort.Direction.DESC, "createdAt").equals(pageable.getSort())) {
+            throw new IdInvalidException(
+                    "Danh sách hồ sơ luôn sắp xếp theo createdAt giảm dần, không hỗ trợ tham số sort");
+        }
+        int size = pageable.getPageSize();
 
         ResultPaginationDTO rs = new ResultPaginationDTO();
         ResultPaginationDTO.Meta mt = new ResultPaginationDTO.Meta();
+        mt.setPageSize(size);
+        List<ResFetchResumeDTO> content;
+        boolean hasNext;
+
+        if (cursor == null || cursor.isBlank()) {
+            Page<ResFetchResumeDTO> page = this.resumeRepository.findMyResumes(userId,
+                    PageRequest.of(pageable.getPageNumber(), size));
+            content = page.getContent();
+            hasNext = page.hasNext();
+            mt.setPage(pageable.getPageNumber() + 1);
+            mt.setPages(page.getTotalPages());
+            mt.setTotal(page.getTotalElements());
+        } else {
+            KeysetPaginationUtil.Cursor after = KeysetPaginationUtil.Cursor.decode(cursor);
+            if (after.lastId() == null || after.lastValue() == null || !"createdAt".equals(after.property())) {
+                throw new IdInvalidException("Cursor không hợp lệ");
+            }
+            Instant createdAt;
+            try {
+                createdAt = Instant.parse(after.lastValue());
+            } catch (DateTimeParseException e) {
+                throw new IdInvalidException("Cursor không hợp lệ");
+            }
+            // lay du 1 ban ghi de biet con trang sau hay khong
+            List<ResFetchResumeDTO> rows = this.resumeRepository.findMyResumesAfter(userId, createdAt,
+                    after.lastId(), PageRequest.of(0, size + 1));
+            hasNext = rows.size() > size;
+            content = hasNext ? rows.subList(0, size) : rows;
+            if (withTotal) {
+                long total = this.resumeRepository.countByUserIdAndActiveTrue(userId);
+                mt.setTotal(total);
+                mt.setPages((int) ((total + size - 1) / size));
+            }
+        }
 
-        mt.setPage(pageable.getPageNumber() + 1);
-        mt.setPageSize(pageable.getPageSize());
-
-        mt.setPages(pageResume.getTotalPages());
-        mt.setTotal(pageResume.getTotalElements());
-
+        if (hasNext && !content.isEmpty()) {
+            ResFetchResumeDTO last = content.get(content.size() - 1);
+            mt.setNextCursor(new KeysetPaginationUtil.Cursor("createdAt", Sort.Direction.DESC, last.getId(),
+                    String.valueOf(last.getCreatedAt())).encode());
+        }
         rs.setMeta(mt);
-        // remove sensitive data
-        List<ResFetchResumeDTO> listResume = pageResume.getContent()
-                .stream().map(item -> this.getResume(item))
-                .collect(Collectors.toList());
-
-        rs.setResult(listResume);
-
+        rs.setResult(content);
         return rs;
     }
 
-    // Chạy mỗi 30 phút
+    // Chạy mỗi 30 phút, chỉ là lưới an toàn: job thường đã đóng ngay khi tuyển đủ (updateStatus).
+    // Đồng bộ lại hired_count, rồi một câu GROUP BY ... HAVING + một UPDATE hàng loạt
     @Scheduled(cron = "0 */30 * * * *")
+    @SchedulerLock(name = "deactivate-hired-full-jobs", leaseSeconds = 900, minLeaseSeconds = 60)
+    @Transactional
     public void autoDeactivateJobsWhenHiredFull() {
-        List<Job> activeJobs = jobRepository.findByActiveTrue();
-        for (Job job : activeJobs) {
-            long hiredCount = resumeRepository.countByJobIdAndStatus(job.getId(), ResumeStateEnum.HIRED);
-            if (hiredCount >= job.getQuantity()) {
-                job.setActive(false);
-                jobRepository.save(job);
-                System.out.println("[Cronjob] Vô hiệu hóa job ID: " + job.getId() + " do đã tuyển đủ: " + hiredCount + "/" + job.getQuantity());
-            }
+        int reconciled = this.jobRepository.reconcileHiredCounts();
+        if (reconciled > 0) {
+            logger.warn("[Cronjob] Reconciled hired_count of {} jobs", reconciled);
         }
+        List<Long> fullJobIds = this.jobRepository.findActiveHiredFullIds();
+        if (fullJobIds.isEmpty()) {
+            return;
+        }
+        List<Object[]> byCompany = this.jobRepository.countActiveByCompanyIn(fullJobIds);
+        int closed = this.jobRepository.deactivateHiredFullByIdIn(fullJobIds, Instant.now());
+        this.eventPublisher.publishEvent(new JobChangedEvent(fullJobIds));
+        this.eventPublisher.publishEvent(StatsCounterService.activeJobsChanged(byCompany, -1));
+        logger.info("[Cronjob] Deactivated {} jobs with full hired quota: {}", closed, fullJobIds);
+    }
+
+    // Đóng job ngay khi hired_count đạt quantity; true nếu job vừa bị đóng
+    private boolean closeJobIfHiredFull(long jobId, Company company) {
+        if (this.jobRepository.deactivateIfHiredFull(jobId, Instant.now()) == 0) {
+            return false;
+        }
+        this.eventPublisher.publishEvent(new JobChangedEvent(jobId));
+        this.eventPublisher.publishEvent(StatsCounterService.activeJobsChanged(company, -1));
+        logger.info("Deactivated job {}: hired quota reached", jobId);
+        return true;
     }
 
     @Transactional
@@ -209,8 +380,7 @@ public class ResumeService {
             
             // Chỉ cho phép xóa mềm nếu hồ sơ đang ở trạng thái PENDING
             if (resume.getStatus() == ResumeStateEnum.PENDING) {
-                resume.setActive(false);
-                this.resumeRepository.save(resume);
+                this.softDelete(resume);
             } else {
                 throw new IllegalStateException("Chỉ có thể xóa hồ sơ đang ở trạng thái chờ xử lý");
             }
@@ -236,9 +406,12 @@ public class ResumeService {
             throw new IllegalStateException("Không thể khôi phục hồ sơ vì công việc đã hết hạn");
         }
         
-        // Kiểm tra xem job có còn slot trống không
-        long hiredCount = resumeRepository.countByJobIdAndStatus(resume.getJob().getId(), ResumeStateEnum.HIRED);
-        if (hiredCount >= resume.getJob().getQuantity()) {
+        // Kiểm tra xem job có còn slot trống không; hồ sơ HIRED thì giữ lại suất đã trả khi xóa
+        if (resume.getStatus() == ResumeStateEnum.HIRED) {
+            if (!this.reserveHire(resume.getJob().getId())) {
+                throw new IllegalStateException("Không thể khôi phục hồ sơ vì công việc đã tuyển đủ số lượng");
+            }
+        } else if (resume.getJob().getHiredCount() >= resume.getJob().getQuantity()) {
             throw new IllegalStateException("Không thể khôi phục hồ sơ vì công việc đã tuyển đủ số lượng");
         }
         
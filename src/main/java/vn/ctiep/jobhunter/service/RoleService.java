@@ -3,6 +3,7 @@ package vn.ctiep.jobhunter.service;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
@@ -10,21 +11,27 @@ import org.springframework.stereotype.Service;
 
 import vn.ctiep.jobhunter.domain.Permission;
 import vn.ctiep.jobhunter.domain.Role;
+import vn.ctiep.jobhunter.domain.event.RoleChangedEvent;
 import vn.ctiep.jobhunter.domain.response.ResultPaginationDTO;
 import vn.ctiep.jobhunter.repository.PermissionRepository;
 import vn.ctiep.jobhunter.repository.RoleRepository;
+import vn.ctiep.jobhunter.util.KeysetPaginationUtil;
+import vn.ctiep.jobhunter.util.error.IdInvalidException;
 
 @Service
 public class RoleService {
 
     private final RoleRepository roleRepository;
     private final PermissionRepository permissionRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public RoleService(
             RoleRepository roleRepository,
-            PermissionRepository permissionRepository) {
+            PermissionRepository permissionRepository,
+            ApplicationEventPublisher eventPublisher) {
         this.roleRepository = roleRepository;
         this.permissionRepository = permissionRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     public boolean existByName(String name) {
@@ -42,7 +49,9 @@ public class RoleService {
             r.setPermissions(dbPermissions);
         }
 
-        return this.roleRepository.save(r);
+        Role saved = this.roleRepository.save(r);
+        this.eventPublisher.publishEvent(new RoleChangedEvent(saved.getId()));
+        return saved;
     }
 
     public Role fetchById(long id) {
@@ -69,14 +78,20 @@ public class RoleService {
         roleDB.setActive(r.isActive());
         roleDB.setPermissions(r.getPermissions());
         roleDB = this.roleRepository.save(roleDB);
+        this.eventPublisher.publishEvent(new RoleChangedEvent(roleDB.getId()));
         return roleDB;
     }
 
     public void delete(long id) {
         this.roleRepository.deleteById(id);
+        this.eventPublisher.publishEvent(new RoleChangedEvent(id));
     }
 
-    public ResultPaginationDTO getRoles(Specification<Role> spec, Pageable pageable) {
+    public ResultPaginationDTO getRoles(Specification<Role> spec, Pageable pageable, String cursor,
+            boolean withTotal) throws IdInvalidException {
+        if (cursor != null) {
+            return KeysetPaginationUtil.fetch(this.roleRepository, spec, cursor, pageable, withTotal, role -> role);
+        }
         Page<Role> pRole = this.roleRepository.findAll(spec, pageable);
         ResultPaginationDTO rs = new ResultPaginationDTO();
         ResultPaginationDTO.Meta mt = new ResultPaginationDTO.Meta();
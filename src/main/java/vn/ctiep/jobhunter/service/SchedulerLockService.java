@@ -0,0 +1,184 @@
+package vn.ctiep.jobhunter.service;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import vn.ctiep.jobhunter.repository.ScheduledTaskRepository;
+
+/**
+ * Lock cho job @Scheduled khi chay nhieu node.
+ *
+ * Redis: SET NX PX voi thoi han lease. Redis la noi giu lock duy nhat: Redis loi thi
+ * bo qua lan chay (fail closed) thay vi lay lock o cho khac, tranh hai node cung chay.
+ * Lock chi duoc tra boi dung nguoi giu (so gia tri) va giu toi thieu minLease.
+ *
+ * Sau khi lay lock, fencing token (Lease.fence) duoc cap tu scheduled_tasks.fencing_token
+ * (tang dan, ben vung ke ca khi Redis mat du lieu). Node giu lock qua han (GC dai, mat
+ * mang) van co the dang chay, nen:
+ * - ghi co trang thai (moc digest) kem dieu kien fence <= token cua lan chay;
+ * - cac UPDATE hang loat tu kiem lai dieu kien trong WHERE (job het han, du suat tuyen),
+ *   chay trung boi node cu cung cho cung ket qua.
+ * Moi lan chay ghi lai thoi diem, trang thai, node va token vao scheduled_tasks.
+ */
+@Service
+public class SchedulerLockService {
+    private static final Logger logger = LoggerFactory.getLogger(SchedulerLockService.class);
+
+    private static final String LOCK_KEY = "scheduler_lock:";
+    private static final String FENCE_KEY = "scheduler_lock_fence:";
+
+    // KEYS[1] lock, KEYS[2] bo dem token; ARGV[1] node, ARGV[2] lease ms. Token chi de
+    // phan biet lan lay lock khi tra lock, fencing token lay tu DB
+    private static final DefaultRedisScript<Long> ACQUIRE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 1 then return 0 end "
+                    + "local token = redis.call('INCR', KEYS[2]) "
+                    + "redis.call('SET', KEYS[1], ARGV[1] .. '|' .. token, 'PX', ARGV[2]) "
+                    + "return token",
+            Long.class);
+
+    // ARGV[1] gia tri luc lay lock, ARGV[2] so ms con phai giu (0 = xoa ngay)
+    private static final DefaultRedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) ~= ARGV[1] then return 0 end "
+                    + "if tonumber(ARGV[2]) > 0 then return redis.call('PEXPIRE', KEYS[1], ARGV[2]) end "
+                    + "return redis.call('DEL', KEYS[1])",
+            Long.class);
+
+    private static final ThreadLocal<Lease> CURRENT = new ThreadLocal<>();
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ScheduledTaskRepository scheduledTaskRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final String nodeId;
+
+    public SchedulerLockService(StringRedisTemplate stringRedisTemplate,
+            ScheduledTaskRepository scheduledTaskRepository, PlatformTransactionManager transactionManager) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.scheduledTaskRepository = scheduledTaskRepository;
+        // luon la transaction rieng, khong dinh vao transaction cua job
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.nodeId = nodeId();
+    }
+
+    /**
+     * Lock dang giu. fence la fencing token cho cac ghi can chan node cu; partition /
+     * partitions cho biet phan viec cua lan chay nay (0 / 1 neu khong chia).
+     */
+    public record Lease(String name, long token, long fence, Instant acquiredAt, Duration minLease,
+            int partition, int partitions) {
+    }
+
+    // Lock cua lan chay hien tai tren thread nay, null neu khong chay duoi @SchedulerLock
+    public static Lease currentLease() {
+        return CURRENT.get();
+    }
+
+    public String getNodeId() {
+        return this.nodeId;
+    }
+
+    // null neu node khac dang giu lock, hoac Redis / DB loi (khong chay con hon chay trung)
+    public Lease tryAcquire(String name, Duration lease, Duration minLease, int partition, int partitions) {
+        Instant now = Instant.now();
+        Long token;
+        try {
+            token = this.stringRedisTemplate.execute(ACQUIRE_SCRIPT, List.of(LOCK_KEY + name, FENCE_KEY + name),
+                    this.nodeId, String.valueOf(lease.toMillis()));
+        } catch (DataAccessException e) {
+            logger.warn("Redis unavailable for scheduler lock {}, skipping this run: {}", name, e.getMessage());
+            return null;
+        }
+        if (token == null || token == 0) {
+            return null;
+        }
+        try {
+            Long fence = this.transactionTemplate.execute(status -> {
+                this.scheduledTaskRepository.insertIfAbsent(name);
+                this.scheduledTaskRepository.nextFencingToken(name, this.nodeId, now.plus(lease));
+                return this.scheduledTaskRepository.findFencingToken(name);
+            });
+            return new Lease(name, token, fence == null ? 0 : fence, now, minLease, partition, partitions);
+        } catch (DataAccessException e) {
+            logger.warn("Could not issue fencing token for {}, skipping this run: {}", name, e.getMessage());
+            this.release(new Lease(name, token, 0, now, Duration.ZERO, partition, partitions));
+            return null;
+        }
+    }
+
+    public void release(Lease lease) {
+        Instant holdUntil = lease.acquiredAt().plus(lease.minLease());
+        long remainingMs = Math.max(0, Duration.between(Instant.now(), holdUntil).toMillis());
+        try {
+            this.stringRedisTemplate.execute(RELEASE_SCRIPT, List.of(LOCK_KEY + lease.name()),
+                    this.nodeId + "|" + lease.token(), String.valueOf(remainingMs));
+        } catch (DataAccessException e) {
+            // lock tu het han sau lease
+            logger.warn("Could not release scheduler lock {}: {}", lease.name(), e.getMessage());
+        }
+    }
+
+    public void recordRun(Lease lease, Instant finishedAt, Throwable error) {
+        String outcome = error == null ? "SUCCESS" : "FAILED";
+        String message = error == null ? null : String.valueOf(error);
+        if (message != null && message.length() > 1000) {
+            message = message.substring(0, 1000);
+        }
+        String lastError = message;
+        try {
+            this.transactionTemplate.executeWithoutResult(status -> this.scheduledTaskRepository.recordRun(
+                    lease.name(), this.nodeId, lease.fence(), lease.acquiredAt(), finishedAt, outcome,
+                    Duration.between(lease.acquiredAt(), finishedAt).toMillis(), lastError));
+        } catch (DataAccessException e) {
+            logger.warn("Could not record run of {}: {}", lease.name(), e.getMessage());
+        }
+    }
+
+    // Chay task duoi lock da lay; ghi lai ket qua roi tra lock
+    public <T> T runWithLease(Lease lease, LockedTask<T> task) throws Throwable {
+        Lease previous = CURRENT.get();
+        CURRENT.set(lease);
+        Throwable error = null;
+        try {
+            return task.run();
+        } catch (Throwable e) {
+            error = e;
+            throw e;
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+            this.recordRun(lease, Instant.now(), error);
+            this.release(lease);
+        }
+    }
+
+    @FunctionalInterface
+    public interface LockedTask<T> {
+        T run() throws Throwable;
+    }
+
+    private static String nodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "unknown";
+        }
+        return host + ":" + ProcessHandle.current().pid();
+    }
+}
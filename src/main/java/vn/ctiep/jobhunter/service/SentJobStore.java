@@ -0,0 +1,202 @@
+package vn.ctiep.jobhunter.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.BitFieldSubCommands;
+import org.springframework.data.redis.connection.BitFieldSubCommands.BitFieldType;
+import org.springframework.data.redis.connection.BitFieldSubCommands.Offset;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Luu cac job da gui cho tung subscriber tren Redis.
+ *
+ * Mac dinh dung Redis set (SADD / SMISMEMBER), nguyen tu nen nhieu lan chay cung luc
+ * khong mat du lieu. Che do "bloom" dung bitmap co dinh cho moi subscriber (BITFIELD)
+ * khi lich su rat lon; co the bo sot job moi voi xac suat nho (false positive).
+ * Moi lan gui key duoc gia han ttl-days nhu truoc. Cac lenh cho ca lo subscriber gui
+ * trong mot pipeline.
+ */
+@Service
+public class SentJobStore {
+    private static final Logger logger = LoggerFactory.getLogger(SentJobStore.class);
+
+    // key cu: HashSet<Long> dang JSON, doc mot lan de chuyen sang dang moi
+    private static final String LEGACY_KEY = "sent_jobs:";
+    private static final String SET_KEY = "sent_jobs:set:";
+    private static final String BLOOM_KEY = "sent_jobs:bloom:";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    @Value("${ctiep.sent-jobs.mode:set}")
+    private String mode;
+
+    @Value("${ctiep.sent-jobs.ttl-days:30}")
+    private long ttlDays;
+
+    @Value("${ctiep.sent-jobs.bloom-bits:16384}")
+    private int bloomBits;
+
+    @Value("${ctiep.sent-jobs.bloom-hashes:4}")
+    private int bloomHashes;
+
+    public SentJobStore(StringRedisTemplate stringRedisTemplate, RedisTemplate<String, Object> redisTemplate) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.redisTemplate = redisTemplate;
+    }
+
+    private boolean isBloom() {
+        return "bloom".equalsIgnoreCase(this.mode);
+    }
+
+    /**
+     * Tra ve job chua gui cua tung email (giu thu tu dau vao, bo email khong con job moi).
+     */
+    public Map<String, List<Long>> filterNew(Map<String, List<Long>> candidates) {
+        this.migrateLegacy(candidates.keySet());
+
+        List<String> emails = new ArrayList<>(candidates.keySet());
+        List<Object> results = this.stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String email : emails) {
+                List<Long> jobIds = candidates.get(email);
+                if (this.isBloom()) {
+                    BitFieldSubCommands commands = BitFieldSubCommands.create();
+                    for (Long jobId : jobIds) {
+                        for (long position : this.bloomPositions(jobId)) {
+                            commands = commands.get(BitFieldType.unsigned(1)).valueAt(Offset.offset(position));
+                        }
+                    }
+                    connection.stringCommands().bitField(this.bytes(BLOOM_KEY + email), commands);
+                } else {
+                    connection.setCommands().sMIsMember(this.bytes(SET_KEY + email), this.members(jobIds));
+                }
+            }
+            return null;
+        });
+
+        Map<String, List<Long>> fresh = new LinkedHashMap<>();
+        for (int i = 0; i < emails.size(); i++) {
+            String email = emails.get(i);
+            List<Long> jobIds = candidates.get(email);
+            List<?> flags = (List<?>) results.get(i);
+            List<Long> newJobIds = new ArrayList<>();
+            for (int j = 0; j < jobIds.size(); j++) {
+                if (!this.isSent(flags, j)) {
+                    newJobIds.add(jobIds.get(j));
+                }
+            }
+            if (!newJobIds.isEmpty()) {
+                fresh.put(email, newJobIds);
+            }
+        }
+        return fresh;
+    }
+
+    public void markSent(Map<String, List<Long>> sent) {
+        if (sent.isEmpty()) {
+            return;
+        }
+        Duration ttl = Duration.ofDays(this.ttlDays);
+        this.stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (Map.Entry<String, List<Long>> entry : sent.entrySet()) {
+                byte[] key;
+                if (this.isBloom()) {
+                    key = this.bytes(BLOOM_KEY + entry.getKey());
+                    BitFieldSubCommands commands = BitFieldSubCommands.create();
+                    for (Long jobId : entry.getValue()) {
+                        for (long position : this.bloomPositions(jobId)) {
+                            commands = commands.set(BitFieldType.unsigned(1)).valueAt(Offset.offset(position)).to(1);
+                        }
+                    }
+                    connection.stringCommands().bitField(key, commands);
+                } else {
+                    key = this.bytes(SET_KEY + entry.getKey());
+                    connection.setCommands().sAdd(key, this.members(entry.getValue()));
+                }
+                // het han sau ttl-days ke tu lan gui cuoi
+                connection.keyCommands().expire(key, ttl.getSeconds());
+            }
+            return null;
+        });
+    }
+
+    // set: List<Boolean> theo tung job; bloom: List<Long> gom bloomHashes bit cho moi job
+    private boolean isSent(List<?> flags, int jobIndex) {
+        if (!this.isBloom()) {
+            return Boolean.TRUE.equals(flags.get(jobIndex));
+        }
+        for (int k = 0; k < this.bloomHashes; k++) {
+            Object bit = flags.get(jobIndex * this.bloomHashes + k);
+            if (!(bit instanceof Number n) || n.longValue() == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // double hashing: vi tri thu i = h1 + i * h2 (mod so bit)
+    long[] bloomPositions(long jobId) {
+        long h1 = mix(jobId);
+        long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+        long[] positions = new long[this.bloomHashes];
+        for (int i = 0; i < this.bloomHashes; i++) {
+            positions[i] = Math.floorMod(h1 + i * h2, (long) this.bloomBits);
+        }
+        return positions;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return z ^ (z >>> 33);
+    }
+
+    private byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private byte[][] members(Collection<Long> jobIds) {
+        byte[][] members = new byte[jobIds.size()][];
+        int i = 0;
+        for (Long jobId : jobIds) {
+            members[i++] = this.bytes(String.valueOf(jobId));
+        }
+        return members;
+    }
+
+    // Chuyen du lieu key JSON cu (neu con) sang dang moi roi xoa key cu
+    private void migrateLegacy(Collection<String> emails) {
+        try {
+            List<String> keys = emails.stream().map(email -> LEGACY_KEY + email).toList();
+            List<Object> values = this.redisTemplate.opsForValue().multiGet(keys);
+            if (values == null) {
+                return;
+            }
+            Map<String, List<Long>> legacy = new LinkedHashMap<>();
+            int i = 0;
+            for (String email : emails) {
+                if (values.get(i++) instanceof Collection<?> ids && !ids.isEmpty()) {
+                    legacy.put(email, ids.stream().map(id -> ((Number) id).longValue()).toList());
+                }
+            }
+            if (!legacy.isEmpty()) {
+                this.markSent(legacy);
+                this.redisTemplate.delete(legacy.keySet().stream().map(email -> LEGACY_KEY + email).toList());
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Could not migrate legacy sent_jobs keys", e);
+        }
+    }
+}
@@ -1,22 +1,33 @@
 package vn.ctiep.jobhunter.service;
 
+import java.util.ArrayList;
 import java.util.Optional;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
+import vn.ctiep.jobhunter.config.CacheConfig;
 import vn.ctiep.jobhunter.domain.Skill;
+import vn.ctiep.jobhunter.domain.event.SkillChangedEvent;
 import vn.ctiep.jobhunter.domain.response.ResultPaginationDTO;
 import vn.ctiep.jobhunter.repository.SkillRepository;
+import vn.ctiep.jobhunter.util.KeysetPaginationUtil;
+import vn.ctiep.jobhunter.util.error.IdInvalidException;
 
 @Service
 public class SkillService {
     private final SkillRepository skillRepository;
+    private final ReadCacheService readCacheService;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public SkillService(SkillRepository skillRepository) {
+    public SkillService(SkillRepository skillRepository, ReadCacheService readCacheService,
+            ApplicationEventPublisher eventPublisher) {
         this.skillRepository = skillRepository;
+        this.readCacheService = readCacheService;
+        this.eventPublisher = eventPublisher;
     }
 
     public boolean isNameExist(String name) {
@@ -31,11 +42,15 @@ public class SkillService {
     }
 
     public Skill createSkill(Skill s) {
-        return this.skillRepository.save(s);
+        Skill skill = this.skillRepository.save(s);
+        this.eventPublisher.publishEvent(new SkillChangedEvent(skill.getId()));
+        return skill;
     }
 
     public Skill updateSkill(Skill s) {
-        return this.skillRepository.save(s);
+        Skill skill = this.skillRepository.save(s);
+        this.eventPublisher.publishEvent(new SkillChangedEvent(skill.getId()));
+        return skill;
     }
 
     public void deleteSkill(long id) {
@@ -49,9 +64,21 @@ public class SkillService {
 
         // delete skill
         this.skillRepository.delete(currentSkill);
+        this.eventPublisher.publishEvent(new SkillChangedEvent(id));
     }
 
-    public ResultPaginationDTO fetchAllSkills(Specification<Skill> spec, Pageable pageable) {
+    public ResultPaginationDTO fetchAllSkills(Specification<Skill> spec, Pageable pageable, String cursor,
+            boolean withTotal) throws IdInvalidException {
+        String key = this.readCacheService.listKey(spec, pageable, cursor, withTotal);
+        return this.readCacheService.getOrLoad(CacheConfig.SKILL_LIST, key,
+                () -> this.loadAllSkills(spec, pageable, cursor, withTotal));
+    }
+
+    private ResultPaginationDTO loadAllSkills(Specification<Skill> spec, Pageable pageable, String cursor,
+            boolean withTotal) throws IdInvalidException {
+        if (cursor != null) {
+            return KeysetPaginationUtil.fetch(this.skillRepository, spec, cursor, pageable, withTotal, skill -> skill);
+        }
         Page<Skill> pageUser = this.skillRepository.findAll(spec, pageable);
 
         ResultPaginationDTO rs = new ResultPaginationDTO();
@@ -65,7 +92,7 @@ public class SkillService {
 
         rs.setMeta(mt);
 
-        rs.setResult(pageUser.getContent());
+        rs.setResult(new ArrayList<>(pageUser.getContent()));
 
         return rs;
     }
@@ -0,0 +1,432 @@
+package vn.ctiep.jobhunter.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import vn.ctiep.jobhunter.domain.Company;
+import vn.ctiep.jobhunter.domain.Job;
+import vn.ctiep.jobhunter.domain.StatsCounter;
+import vn.ctiep.jobhunter.domain.event.StatsDeltaEvent;
+import vn.ctiep.jobhunter.repository.CompanyRepository;
+import vn.ctiep.jobhunter.repository.JobRepository;
+import vn.ctiep.jobhunter.repository.ResumeRepository;
+import vn.ctiep.jobhunter.repository.StatsCounterRepository;
+import vn.ctiep.jobhunter.repository.UserRepository;
+import vn.ctiep.jobhunter.util.annotation.SchedulerLock;
+import vn.ctiep.jobhunter.util.constant.ResumeStateEnum;
+
+/**
+ * So lieu dashboard doc san tu bang stats_counters (ban sao tren Redis).
+ *
+ * So dem chia theo scope: "global", "active_jobs_by_company", "company:<id>",
+ * "company:<id>:resumes_by_job". Moi scope la mot Redis hash (key -> gia tri, ten hien
+ * thi o hash ":labels" ben canh); API dashboard chi doc Redis (mat thi doc bang).
+ * Thao tac ghi (tao job/company/user/resume, bat/tat job, doi trang thai resume...)
+ * phat StatsDeltaEvent; sau khi commit tung so dem duoc cong/tru truc tiep
+ * (counter_value + d, HINCRBY), khong COUNT lai. Scope chua tung duoc tinh thi bo qua,
+ * lan doc dau se dem. Chi cron reconcile dem lai tat ca de sua sai lech (su kien bi mat
+ * khi node tat, update ngoai ung dung...).
+ */
+@Service
+public class StatsCounterService {
+    private static final Logger logger = LoggerFactory.getLogger(StatsCounterService.class);
+
+    public static final String GLOBAL = "global";
+    public static final String ACTIVE_JOBS_BY_COMPANY = "active_jobs_by_company";
+
+    private static final String REDIS_KEY = "stats:";
+    private static final String LABELS = ":labels";
+    // dong / field danh dau scope da duoc dem (ke ca khi chua co so dem nao)
+    private static final String MATERIALIZED = "_";
+
+    // KEYS[1] hash so dem, KEYS[2] hash ten; ARGV[1] key, ARGV[2] delta, ARGV[3] ten ('' = giu).
+    // Chi sua scope da co tren Redis; delta am khong tao field moi
+    private static final DefaultRedisScript<Long> INCREMENT_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return 0 end "
+                    + "local delta = tonumber(ARGV[2]) "
+                    + "if delta < 0 and redis.call('HEXISTS', KEYS[1], ARGV[1]) == 0 then return 0 end "
+                    + "if delta ~= 0 then redis.call('HINCRBY', KEYS[1], ARGV[1], delta) end "
+                    + "if ARGV[3] ~= '' then redis.call('HSET', KEYS[2], ARGV[1], ARGV[3]) end "
+                    + "return 1",
+            Long.class);
+
+    private final StatsCounterRepository statsCounterRepository;
+    private final JobRepository jobRepository;
+    private final CompanyRepository companyRepository;
+    private final UserRepository userRepository;
+    private final ResumeRepository resumeRepository;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public StatsCounterService(StatsCounterRepository statsCounterRepository, JobRepository jobRepository,
+            CompanyRepository companyRepository, UserRepository userRepository, ResumeRepository resumeRepository,
+            StringRedisTemplate stringRedisTemplate, PlatformTransactionManager transactionManager) {
+        this.statsCounterRepository = statsCounterRepository;
+        this.jobRepository = jobRepository;
+        this.companyRepository = companyRepository;
+        this.userRepository = userRepository;
+        this.resumeRepository = resumeRepository;
+        this.stringRedisTemplate = stringRedisTemplate;
+        // delta duoc ap dung sau commit cua thao tac: luon la transaction rieng
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public record Counter(String key, String label, long value) {
+    }
+
+    public static String companyScope(long companyId) {
+        return "company:" + companyId;
+    }
+
+    public static String resumesByJobScope(long companyId) {
+        return "company:" + companyId + ":resumes_by_job";
+    }
+
+    // /stats: tong quan + job dang tuyen theo company
+    public Map<String, Object> overview() {
+        Map<String, Long> global = values(this.read(GLOBAL));
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("totalJobs", global.getOrDefault("jobs.total", 0L));
+        result.put("totalCompanies", global.getOrDefault("companies.total", 0L));
+        result.put("totalUsers", global.getOrDefault("users.total", 0L));
+        result.put("activeJobsByCompany", grouped(this.read(ACTIVE_JOBS_BY_COMPANY), "companyName", "activeJobs"));
+        return result;
+    }
+
+    // /stats/company/{id}
+    public Map<String, Object> company(long companyId) {
+        Map<String, Long> counters = values(this.read(companyScope(companyId)));
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("totalJobs", counters.getOrDefault("jobs.total", 0L));
+        result.put("activeJobs", counters.getOrDefault("jobs.active", 0L));
+
+        Map<String, Object> resumeStats = new LinkedHashMap<>();
+        resumeStats.put("totalResumes", counters.getOrDefault("resumes.total", 0L));
+        List<Map<String, Object>> byStatus = new ArrayList<>();
+        counters.forEach((key, value) -> {
+            if (key.startsWith("resumes.status:") && value > 0) {
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("status", key.substring("resumes.status:".length()));
+                row.put("count", value);
+                byStatus.add(row);
+            }
+        });
+        resumeStats.put("byStatus", byStatus);
+        resumeStats.put("byJob", grouped(this.read(resumesByJobScope(companyId)), "jobName", "count"));
+        result.put("resumeStats", resumeStats);
+        return result;
+    }
+
+    // Redis -> bang -> tinh moi
+    private List<Counter> read(String scope) {
+        try {
+            HashOperations<String, String, String> hash = this.stringRedisTemplate.opsForHash();
+            Map<String, String> values = hash.entries(REDIS_KEY + scope);
+            if (!values.isEmpty()) {
+                Map<String, String> labels = hash.entries(REDIS_KEY + scope + LABELS);
+                List<Counter> counters = new ArrayList<>();
+                values.forEach((key, value) -> {
+                    if (!MATERIALIZED.equals(key)) {
+                        counters.add(new Counter(key, labels.get(key), Long.parseLong(value)));
+                    }
+                });
+                return counters;
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Could not read stats scope {} from Redis", scope, e);
+        }
+        List<StatsCounter> rows = this.statsCounterRepository.findByScope(scope);
+        if (!rows.isEmpty()) {
+            List<Counter> counters = rows.stream()
+                    .filter(row -> !MATERIALIZED.equals(row.getCounterKey()))
+                    .map(row -> new Counter(row.getCounterKey(), row.getLabel(), row.getCounterValue()))
+                    .toList();
+            this.mirror(scope, counters);
+            return counters;
+        }
+        return this.refresh(scope);
+    }
+
+    /**
+     * Tinh lai mot scope bang cac cau COUNT co index, ghi de cac dong cua scope trong
+     * bang roi cap nhat Redis.
+     */
+    public List<Counter> refresh(String scope) {
+        List<Counter> counters = this.compute(scope);
+        try {
+            this.transactionTemplate.executeWithoutResult(status -> {
+                this.statsCounterRepository.deleteByScope(scope);
+                List<StatsCounter> rows = new ArrayList<>();
+                rows.add(new StatsCounter(scope, MATERIALIZED, null, 0));
+                counters.forEach(c -> rows.add(new StatsCounter(scope, c.key(), c.label(), c.value())));
+                this.statsCounterRepository.saveAll(rows);
+            });
+        } catch (DataIntegrityViolationException e) {
+            // node khac vua ghi cung scope; gia tri nhu nhau
+            logger.debug("Stats scope {} written concurrently", scope);
+        }
+        this.mirror(scope, counters);
+        return counters;
+    }
+
+    private List<Counter> compute(String scope) {
+        List<Counter> counters = new ArrayList<>();
+        if (GLOBAL.equals(scope)) {
+            counters.add(new Counter("jobs.total", null, this.jobRepository.count()));
+            counters.add(new Counter("companies.total", null, this.companyRepository.count()));
+            counters.add(new Counter("users.total", null, this.userRepository.count()));
+        } else if (ACTIVE_JOBS_BY_COMPANY.equals(scope)) {
+            for (Object[] row : this.jobRepository.countActiveByCompany()) {
+                counters.add(new Counter(String.valueOf(row[0]), (String) row[1], ((Number) row[2]).longValue()));
+            }
+        } else if (scope.endsWith(":resumes_by_job")) {
+            long companyId = companyIdOf(scope);
+            for (Map<String, Object> row : this.resumeRepository.countResumesByJob(companyId)) {
+                String jobName = String.valueOf(row.get("jobName"));
+                counters.add(new Counter(jobKey(jobName), jobName, ((Number) row.get("count")).longValue()));
+            }
+        } else if (scope.startsWith("company:")) {
+            long companyId = companyIdOf(scope);
+            counters.add(new Counter("jobs.total", null, this.jobRepository.countByCompanyId(companyId)));
+            counters.add(new Counter("jobs.active", null, this.jobRepository.countByCompanyIdAndActiveTrue(companyId)));
+            counters.add(new Counter("resumes.total", null, this.resumeRepository.countByCompanyId(companyId)));
+            for (Map<String, Object> row : this.resumeRepository.countResumesByStatus(companyId)) {
+                counters.add(new Counter("resumes.status:" + row.get("status"), null,
+                        ((Number) row.get("count")).longValue()));
+            }
+        } else {
+            throw new IllegalArgumentException("Unknown stats scope " + scope);
+        }
+        return counters;
+    }
+
+    private void mirror(String scope, List<Counter> counters) {
+        Map<String, String> values = new HashMap<>();
+        Map<String, String> labels = new HashMap<>();
+        values.put(MATERIALIZED, "0");
+        for (Counter counter : counters) {
+            values.put(counter.key(), String.valueOf(counter.value()));
+            if (counter.label() != null) {
+                labels.put(counter.key(), counter.label());
+            }
+        }
+        try {
+            HashOperations<String, String, String> hash = this.stringRedisTemplate.opsForHash();
+            this.stringRedisTemplate.delete(List.of(REDIS_KEY + scope, REDIS_KEY + scope + LABELS));
+            // ten truoc, so dem sau: ai doc thay so dem thi cung thay ten
+            if (!labels.isEmpty()) {
+                hash.putAll(REDIS_KEY + scope + LABELS, labels);
+            }
+            hash.putAll(REDIS_KEY + scope, values);
+        } catch (RuntimeException e) {
+            logger.warn("Could not mirror stats scope {} to Redis", scope, e);
+        }
+    }
+
+    // Luoi an toan: tinh lai moi scope
+    @Scheduled(cron = "${ctiep.stats.reconcile-cron:0 15 3 * * *}")
+    @SchedulerLock(name = "stats-reconcile", leaseSeconds = 3600)
+    public void reconcile() {
+        long start = System.currentTimeMillis();
+        this.refresh(GLOBAL);
+        this.refresh(ACTIVE_JOBS_BY_COMPANY);
+        List<Long> companyIds = this.companyRepository.findAllIds();
+        for (Long companyId : companyIds) {
+            this.refresh(companyScope(companyId));
+            this.refresh(resumesByJobScope(companyId));
+        }
+        logger.info("[Cronjob] Reconciled stats counters for {} companies in {} ms", companyIds.size(),
+                System.currentTimeMillis() - start);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatsDelta(StatsDeltaEvent event) {
+        List<StatsDeltaEvent.Delta> applied;
+        try {
+            applied = this.transactionTemplate.execute(status -> {
+                List<StatsDeltaEvent.Delta> done = new ArrayList<>();
+                for (StatsDeltaEvent.Delta delta : event.getDeltas()) {
+                    if (this.applyToTable(delta)) {
+                        done.add(delta);
+                    }
+                }
+                return done;
+            });
+        } catch (RuntimeException e) {
+            // reconcile se dem lai
+            logger.warn("Could not apply {} stats deltas", event.getDeltas().size(), e);
+            return;
+        }
+        for (StatsDeltaEvent.Delta delta : applied) {
+            this.applyToRedis(delta);
+        }
+    }
+
+    // false: scope chua duoc dem lan nao (lan doc dau se dem) hoac khong co so dem de tru
+    private boolean applyToTable(StatsDeltaEvent.Delta delta) {
+        if (!this.statsCounterRepository.existsByScope(delta.scope())) {
+            return false;
+        }
+        Instant now = Instant.now();
+        if (delta.delta() > 0) {
+            this.statsCounterRepository.upsertIncrement(delta.scope(), delta.key(), delta.label(), delta.delta(), now);
+            return true;
+        }
+        return this.statsCounterRepository.increment(delta.scope(), delta.key(), delta.label(), delta.delta(),
+                now) > 0;
+    }
+
+    private void applyToRedis(StatsDeltaEvent.Delta delta) {
+        try {
+            this.stringRedisTemplate.execute(INCREMENT_SCRIPT,
+                    List.of(REDIS_KEY + delta.scope(), REDIS_KEY + delta.scope() + LABELS),
+                    delta.key(), String.valueOf(delta.delta()), delta.label() == null ? "" : delta.label());
+        } catch (RuntimeException e) {
+            // ban sao Redis lech: xoa de lan doc sau lay lai tu bang
+            logger.warn("Could not apply stats delta to Redis scope {}", delta.scope(), e);
+            try {
+                this.stringRedisTemplate.delete(List.of(REDIS_KEY + delta.scope(), REDIS_KEY + delta.scope() + LABELS));
+            } catch (RuntimeException ignored) {
+                // Redis khong dung duoc: doc se roi ve bang
+            }
+        }
+    }
+
+    // ---- delta cho tung loai thao tac (service phat sau khi ghi) ----
+
+    public static StatsDeltaEvent userCreated() {
+        return new StatsDeltaEvent(List.of(new StatsDeltaEvent.Delta(GLOBAL, "users.total", null, 1)));
+    }
+
+    public static StatsDeltaEvent companyCreated() {
+        return new StatsDeltaEvent(List.of(new StatsDeltaEvent.Delta(GLOBAL, "companies.total", null, 1)));
+    }
+
+    // ten company hien thi o bang job dang tuyen theo company
+    public static StatsDeltaEvent companyRenamed(Company company) {
+        return new StatsDeltaEvent(List.of(new StatsDeltaEvent.Delta(ACTIVE_JOBS_BY_COMPANY,
+                String.valueOf(company.getId()), company.getName(), 0)));
+    }
+
+    public static StatsDeltaEvent jobCreated(Job job) {
+        List<StatsDeltaEvent.Delta> deltas = new ArrayList<>();
+        deltas.add(new StatsDeltaEvent.Delta(GLOBAL, "jobs.total", null, 1));
+        if (job.getCompany() != null) {
+            deltas.add(new StatsDeltaEvent.Delta(companyScope(job.getCompany().getId()), "jobs.total", null, 1));
+            if (job.isActive()) {
+                deltas.addAll(activeJobDeltas(job.getCompany().getId(), job.getCompany().getName(), 1));
+            }
+        }
+        return new StatsDeltaEvent(deltas);
+    }
+
+    // job cua company bat (+) / tat (-): duyet, xoa mem, khoi phuc, het han, tuyen du...
+    public static StatsDeltaEvent activeJobsChanged(Company company, long delta) {
+        if (company == null || delta == 0) {
+            return new StatsDeltaEvent(List.of());
+        }
+        return new StatsDeltaEvent(activeJobDeltas(company.getId(), company.getName(), delta));
+    }
+
+    // rows: (company id, ten company, so job) nhu JobRepository.countActiveByCompanyIn; sign +1 / -1
+    public static StatsDeltaEvent activeJobsChanged(List<Object[]> rows, int sign) {
+        List<StatsDeltaEvent.Delta> deltas = new ArrayList<>();
+        for (Object[] row : rows) {
+            deltas.addAll(activeJobDeltas((Long) row[0], (String) row[1], sign * ((Number) row[2]).longValue()));
+        }
+        return new StatsDeltaEvent(deltas);
+    }
+
+    private static List<StatsDeltaEvent.Delta> activeJobDeltas(long companyId, String companyName, long delta) {
+        return List.of(
+                new StatsDeltaEvent.Delta(companyScope(companyId), "jobs.active", null, delta),
+                new StatsDeltaEvent.Delta(ACTIVE_JOBS_BY_COMPANY, String.valueOf(companyId), companyName, delta));
+    }
+
+    // resume theo job dem theo ten job: doi ten thi chuyen so resume sang ten moi
+    public static StatsDeltaEvent jobRenamed(Job job, String previousName, long resumes) {
+        if (job.getCompany() == null || resumes == 0) {
+            return new StatsDeltaEvent(List.of());
+        }
+        String scope = resumesByJobScope(job.getCompany().getId());
+        String name = String.valueOf(job.getName());
+        return new StatsDeltaEvent(List.of(
+                new StatsDeltaEvent.Delta(scope, jobKey(String.valueOf(previousName)), null, -resumes),
+                new StatsDeltaEvent.Delta(scope, jobKey(name), name, resumes)));
+    }
+
+    public static StatsDeltaEvent resumeCreated(Job job, ResumeStateEnum status) {
+        if (job.getCompany() == null) {
+            return new StatsDeltaEvent(List.of());
+        }
+        long companyId = job.getCompany().getId();
+        String name = String.valueOf(job.getName());
+        return new StatsDeltaEvent(List.of(
+                new StatsDeltaEvent.Delta(companyScope(companyId), "resumes.total", null, 1),
+                new StatsDeltaEvent.Delta(companyScope(companyId), "resumes.status:" + status, null, 1),
+                new StatsDeltaEvent.Delta(resumesByJobScope(companyId), jobKey(name), name, 1)));
+    }
+
+    public static StatsDeltaEvent resumeStatusChanged(Job job, ResumeStateEnum previous, ResumeStateEnum status) {
+        if (job.getCompany() == null || previous == status) {
+            return new StatsDeltaEvent(List.of());
+        }
+        String scope = companyScope(job.getCompany().getId());
+        return new StatsDeltaEvent(List.of(
+                new StatsDeltaEvent.Delta(scope, "resumes.status:" + previous, null, -1),
+                new StatsDeltaEvent.Delta(scope, "resumes.status:" + status, null, 1)));
+    }
+
+    // counter_key toi da 191 ky tu (unique index utf8mb4)
+    private static String jobKey(String jobName) {
+        return jobName.length() > 191 ? jobName.substring(0, 191) : jobName;
+    }
+
+    private static long companyIdOf(String scope) {
+        String[] parts = scope.split(":");
+        return Long.parseLong(parts[1]);
+    }
+
+    private static Map<String, Long> values(List<Counter> counters) {
+        Map<String, Long> values = new LinkedHashMap<>();
+        for (Counter counter : counters) {
+            values.put(counter.key(), counter.value());
+        }
+        return values;
+    }
+
+    // so dem theo nhom, lon nhat truoc, giong ket qua GROUP BY ... ORDER BY count DESC cu
+    // (nhom da giam ve 0 thi an, nhu GROUP BY)
+    private static List<Map<String, Object>> grouped(List<Counter> counters, String labelName, String valueName) {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        counters.stream()
+                .filter(counter -> counter.value() > 0)
+                .sorted(Comparator.comparingLong(Counter::value).reversed())
+                .forEach(counter -> {
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    row.put(labelName, counter.label());
+                    row.put(valueName, counter.value());
+                    rows.add(row);
+                });
+        return rows;
+    }
+}
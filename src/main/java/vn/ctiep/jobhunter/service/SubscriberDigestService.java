@@ -0,0 +1,247 @@
+package vn.ctiep.jobhunter.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import vn.ctiep.jobhunter.domain.DigestWatermark;
+import vn.ctiep.jobhunter.domain.Job;
+import vn.ctiep.jobhunter.domain.Skill;
+import vn.ctiep.jobhunter.repository.DigestWatermarkRepository;
+import vn.ctiep.jobhunter.repository.JobRepository;
+import vn.ctiep.jobhunter.repository.SubscriberRepository;
+
+/**
+ * Tinh danh sach job phu hop cho tung subscriber trong mot lan duyet.
+ *
+ * Nap tat ca job dang active mot lan, dung map skill id -> job id, roi duyet
+ * subscriber theo trang (keyset theo id, moi trang 2 cau SQL) va ghep trong bo nho.
+ * So cau SQL khong phu thuoc so subscriber x so job nhu cach goi
+ * findBySkillsInAndActiveTrue cho tung subscriber.
+ *
+ * Che do tang dan (runIncremental) chi xet job duyet sau moc luu trong
+ * digest_watermarks, nen thoi gian chay tang theo so job moi thay vi ca catalog.
+ *
+ * Moi lan doc DB (danh sach job, tung trang subscriber) la mot transaction chi doc
+ * ngan; consumer (render, Redis, gui mail) chay ngoai transaction nen khong giu
+ * ket noi DB suot lan gui digest.
+ */
+@Service
+public class SubscriberDigestService {
+    private static final Logger logger = LoggerFactory.getLogger(SubscriberDigestService.class);
+
+    private final JobRepository jobRepository;
+    private final SubscriberRepository subscriberRepository;
+    private final DigestWatermarkRepository digestWatermarkRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private static final String JOB_APPROVAL_MARK = "job-approval";
+
+    @Value("${ctiep.digest.page-size:1000}")
+    private int pageSize;
+
+    @Value("${ctiep.digest.lag-seconds:60}")
+    private long lagSeconds;
+
+    public SubscriberDigestService(JobRepository jobRepository, SubscriberRepository subscriberRepository,
+            DigestWatermarkRepository digestWatermarkRepository, PlatformTransactionManager transactionManager) {
+        this.jobRepository = jobRepository;
+        this.subscriberRepository = subscriberRepository;
+        this.digestWatermarkRepository = digestWatermarkRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Digest<T> {
+        private long subscriberId;
+        private String email;
+        private String name;
+        // job moi nhat truoc
+        private List<Long> jobIds;
+        private List<T> jobs;
+    }
+
+    // Lay mot trang subscriber (id, email, name) co id > afterId, sap xep theo id
+    private interface SubscriberPages {
+        List<Object[]> fetch(long afterId, Pageable pageable);
+    }
+
+    // ket qua ghep cua mot trang subscriber
+    private record MatchedPage<T>(int rows, long lastId, List<Digest<T>> digests) {
+    }
+
+    /**
+     * Goi consumer cho moi subscriber co it nhat mot job phu hop. jobMapper chi chay
+     * mot lan cho moi job. Tra ve so subscriber da duyet.
+     */
+    public <T> int run(Function<Job, T> jobMapper, Consumer<Digest<T>> consumer) {
+        long start = System.currentTimeMillis();
+
+        // 1. job active (company, skills nap san) + map skill -> job
+        Map<Long, T> jobsById = new HashMap<>();
+        Map<Long, List<Long>> jobIdsBySkill = new HashMap<>();
+        index(this.readOnlyTransaction.execute(status -> this.jobRepository.findActiveWithCompanyAndSkills()),
+                jobMapper, jobsById, jobIdsBySkill);
+        if (jobIdsBySkill.isEmpty()) {
+            return 0;
+        }
+
+        // 2. duyet tat ca subscriber theo trang
+        int scanned = this.match(jobsById, jobIdsBySkill, this.subscriberRepository::findDigestPage, consumer);
+
+        logger.info("Digest matched {} active jobs against {} subscribers in {} ms",
+                jobsById.size(), scanned, System.currentTimeMillis() - start);
+        return scanned;
+    }
+
+    /**
+     * Nhu run() nhung chi xet job duoc duyet sau moc cua lan chay truoc, va chi duyet
+     * subscriber co skill cua cac job do (qua chi muc skill -> subscriber). Job duyet
+     * trong lag-seconds gan nhat de lan sau vi transaction duyet co the chua commit.
+     *
+     * Khong luu moc: tra ve moc moi (null neu khong co job moi), nguoi goi chi
+     * advanceWatermark() sau khi digest da gui xong.
+     */
+    public <T> DigestWatermark runIncremental(Function<Job, T> jobMapper, Consumer<Digest<T>> consumer) {
+        long start = System.currentTimeMillis();
+        DigestWatermark mark = this.digestWatermarkRepository.findById(JOB_APPROVAL_MARK)
+                .orElseGet(() -> new DigestWatermark(JOB_APPROVAL_MARK));
+        Instant afterAt = mark.getApprovedAt() == null ? Instant.EPOCH : mark.getApprovedAt();
+        Instant until = Instant.now().minusSeconds(this.lagSeconds);
+
+        // 1. job moi duyet, theo thu tu (approvedAt, id)
+        List<Job> newJobs = this.readOnlyTransaction.execute(
+                status -> this.jobRepository.findApprovedAfter(afterAt, mark.getJobId(), until));
+        if (newJobs.isEmpty()) {
+            return null;
+        }
+        Map<Long, T> jobsById = new HashMap<>();
+        Map<Long, List<Long>> jobIdsBySkill = new HashMap<>();
+        index(newJobs, jobMapper, jobsById, jobIdsBySkill);
+
+        // 2. chi subscriber co skill lien quan
+        int scanned = 0;
+        if (!jobIdsBySkill.isEmpty()) {
+            Set<Long> skillIds = jobIdsBySkill.keySet();
+            scanned = this.match(jobsById, jobIdsBySkill,
+                    (afterId, pageable) -> this.subscriberRepository.findDigestPageBySkillIdIn(skillIds, afterId,
+                            pageable),
+                    consumer);
+        }
+
+        logger.info("Incremental digest matched {} new jobs against {} subscribers in {} ms",
+                newJobs.size(), scanned, System.currentTimeMillis() - start);
+
+        // 3. moc moi la job cuoi cung (ke ca job khong co skill)
+        Job last = newJobs.get(newJobs.size() - 1);
+        DigestWatermark next = new DigestWatermark(JOB_APPROVAL_MARK);
+        next.setApprovedAt(last.getApprovedAt());
+        next.setJobId(last.getId());
+        return next;
+    }
+
+    /**
+     * Luu moc, chi tien len. fence la fencing token cua lan chay: node giu lock da qua
+     * han (token cu) khong ghi de moc cua lan chay moi hon. false neu khong ghi.
+     */
+    @Transactional
+    public boolean advanceWatermark(DigestWatermark next, long fence) {
+        this.digestWatermarkRepository.insertIfAbsent(next.getName());
+        return this.digestWatermarkRepository.advance(next.getName(), next.getApprovedAt(), next.getJobId(), fence,
+                Instant.now()) == 1;
+    }
+
+    private static <T> void index(List<Job> jobs, Function<Job, T> jobMapper, Map<Long, T> jobsById,
+            Map<Long, List<Long>> jobIdsBySkill) {
+        for (Job job : jobs) {
+            // job khong co skill thi khong bao gio khop
+            if (job.getSkills() != null && !job.getSkills().isEmpty()) {
+                jobsById.put(job.getId(), jobMapper.apply(job));
+                for (Skill skill : job.getSkills()) {
+                    jobIdsBySkill.computeIfAbsent(skill.getId(), k -> new ArrayList<>()).add(job.getId());
+                }
+            }
+        }
+    }
+
+    private <T> int match(Map<Long, T> jobsById, Map<Long, List<Long>> jobIdsBySkill, SubscriberPages pages,
+            Consumer<Digest<T>> consumer) {
+        int scanned = 0;
+        long afterId = 0;
+        while (true) {
+            long from = afterId;
+            MatchedPage<T> page = this.readOnlyTransaction
+                    .execute(status -> this.matchPage(jobsById, jobIdsBySkill, pages, from));
+            if (page == null || page.rows() == 0) {
+                break;
+            }
+            afterId = page.lastId();
+            scanned += page.rows();
+
+            // dua ket qua sang buoc gui email, ngoai transaction
+            page.digests().forEach(consumer);
+
+            if (page.rows() < this.pageSize) {
+                break;
+            }
+        }
+        return scanned;
+    }
+
+    private <T> MatchedPage<T> matchPage(Map<Long, T> jobsById, Map<Long, List<Long>> jobIdsBySkill,
+            SubscriberPages pages, long afterId) {
+        List<Object[]> rows = pages.fetch(afterId, PageRequest.of(0, this.pageSize));
+        if (rows.isEmpty()) {
+            return new MatchedPage<>(0, afterId, List.of());
+        }
+        Map<Long, Object[]> subscribers = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            subscribers.put((Long) row[0], row);
+        }
+
+        Map<Long, TreeSet<Long>> matches = new HashMap<>();
+        for (Object[] row : this.subscriberRepository.findSkillIdsBySubscriberIdIn(subscribers.keySet())) {
+            List<Long> jobIds = jobIdsBySkill.get((Long) row[1]);
+            if (jobIds != null) {
+                matches.computeIfAbsent((Long) row[0], k -> new TreeSet<>()).addAll(jobIds);
+            }
+        }
+
+        List<Digest<T>> digests = new ArrayList<>();
+        for (Map.Entry<Long, Object[]> entry : subscribers.entrySet()) {
+            TreeSet<Long> matched = matches.get(entry.getKey());
+            if (matched == null) {
+                continue;
+            }
+            List<Long> jobIds = new ArrayList<>(matched.descendingSet());
+            List<T> jobs = new ArrayList<>(jobIds.size());
+            for (Long jobId : jobIds) {
+                jobs.add(jobsById.get(jobId));
+            }
+            Object[] row = entry.getValue();
+            digests.add(new Digest<>(entry.getKey(), (String) row[1], (String) row[2], jobIds, jobs));
+        }
+        return new MatchedPage<>(rows.size(), (Long) rows.get(rows.size() - 1)[0], digests);
+    }
+}
@@ -1,40 +1,64 @@
 package vn.ctiep.jobhunter.service;
 
-import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import jakarta.mail.SendFailedException;
+import jakarta.mail.internet.AddressException;
 import jakarta.persistence.EntityNotFoundException;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import vn.ctiep.jobhunter.domain.DigestWatermark;
 import vn.ctiep.jobhunter.domain.Job;
 import vn.ctiep.jobhunter.domain.Skill;
 import vn.ctiep.jobhunter.domain.Subscriber;
+import vn.ctiep.jobhunter.domain.event.SubscriberChangedEvent;
 import vn.ctiep.jobhunter.domain.response.email.ResEmailJob;
-import vn.ctiep.jobhunter.repository.JobRepository;
 import vn.ctiep.jobhunter.repository.SkillRepository;
 import vn.ctiep.jobhunter.repository.SubscriberRepository;
 
 @Service
 public class SubscriberService {
-    private final RedisTemplate<String, Object> redisTemplate;
+    private static final Logger logger = LoggerFactory.getLogger(SubscriberService.class);
+
+    private final SentJobStore sentJobStore;
     private final SubscriberRepository subscriberRepository;
     private final SkillRepository skillRepository;
-    private final JobRepository jobRepository;
+    private final SubscriberDigestService subscriberDigestService;
     private final EmailService emailService;
+    private final DigestEmailRenderer digestEmailRenderer;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${ctiep.sent-jobs.batch-size:200}")
+    private int sentJobsBatchSize;
+
+    // incremental | full
+    @Value("${ctiep.digest.mode:incremental}")
+    private String digestMode;
 
     public SubscriberService(
             SubscriberRepository subscriberRepository,
             SkillRepository skillRepository,
-            JobRepository jobRepository,
+            SubscriberDigestService subscriberDigestService,
             EmailService emailService,
-            RedisTemplate<String, Object> redisTemplate) {
+            DigestEmailRenderer digestEmailRenderer,
+            SentJobStore sentJobStore,
+            ApplicationEventPublisher eventPublisher) {
         this.subscriberRepository = subscriberRepository;
         this.skillRepository = skillRepository;
-        this.jobRepository = jobRepository;
+        this.subscriberDigestService = subscriberDigestService;
         this.emailService = emailService;
-        this.redisTemplate = redisTemplate;
+        this.digestEmailRenderer = digestEmailRenderer;
+        this.sentJobStore = sentJobStore;
+        this.eventPublisher = eventPublisher;
     }
 
     public boolean isExistsByEmail(String email) {
@@ -52,7 +76,9 @@ public class SubscriberService {
             subs.setSkills(dbSkills);
         }
 
-        return this.subscriberRepository.save(subs);
+        Subscriber saved = this.subscriberRepository.save(subs);
+        this.eventPublisher.publishEvent(new SubscriberChangedEvent(saved.getId()));
+        return saved;
     }
 
     public Subscriber update(Subscriber subsDB, Subscriber subsRequest) {
@@ -65,7 +91,12 @@ public class SubscriberService {
             List<Skill> dbSkills = this.skillRepository.findByIdIn(reqSkills);
             subsDB.setSkills(dbSkills);
         }
-        return this.subscriberRepository.save(subsDB);
+        if (subsRequest.getAlertMode() != null) {
+            subsDB.setAlertMode(subsRequest.getAlertMode());
+        }
+        Subscriber saved = this.subscriberRepository.save(subsDB);
+        this.eventPublisher.publishEvent(new SubscriberChangedEvent(saved.getId()));
+        return saved;
     }
 
     public Subscriber findById(long id) {
@@ -86,6 +117,7 @@ public class SubscriberService {
 
             // Xóa subscriber
             this.subscriberRepository.delete(subscriber);
+            this.eventPublisher.publishEvent(new SubscriberChangedEvent(id));
         } else {
             throw new EntityNotFoundException("Không tìm thấy subscriber với id = " + id);
         }
@@ -104,73 +136,118 @@ public class SubscriberService {
         return res;
     }
 
-    //Lay danh sach job chua gui
-    @SuppressWarnings("unchecked")
-    private List<Job> filterNewJobs(String email, List<Job> jobs) {
-        // Tao key redis dua vao email
-        String redisKey = "sent_jobs:" + email;
-        // Lay danh sach job da gui
-        Set<Long> cache = (Set<Long>) redisTemplate.opsForValue().get(redisKey);
-        // Neu cache null thi tao moi
-        Set<Long> sentJobIds = (cache != null) ? cache : new HashSet<>();
-        // Lay danh sach job chua gui
-        return jobs.stream()
-                .filter(job -> !sentJobIds.contains(job.getId()))
-                .toList();
+    public int sendSubscribersEmailJobs() {
+        boolean incremental = !"full".equalsIgnoreCase(this.digestMode);
+        int[] sent = { 0 };
+        List<SubscriberDigestService.Digest<String>> batch = new ArrayList<>();
+        // moi lo: true khi khong con thu nao can gui lai
+        List<CompletableFuture<Boolean>> pending = new ArrayList<>();
+        // Ghep job voi skill cua subscriber trong mot lan duyet, xu ly theo lo.
+        // Moi job chi render the HTML mot lan
+        Function<Job, String> jobMapper = job -> this.digestEmailRenderer.jobFragment(job,
+                () -> convertJobToSendEmail(job));
+        Consumer<SubscriberDigestService.Digest<String>> consumer = digest -> {
+            batch.add(digest);
+            if (batch.size() >= this.sentJobsBatchSize) {
+                sent[0] += sendDigestBatch(batch, pending);
+                batch.clear();
+            }
+        };
+        DigestWatermark next = null;
+        if (incremental) {
+            next = this.subscriberDigestService.runIncremental(jobMapper, consumer);
+        } else {
+            this.subscriberDigestService.run(jobMapper, consumer);
+        }
+        if (!batch.isEmpty()) {
+            sent[0] += sendDigestBatch(batch, pending);
+        }
+        if (next != null) {
+            // chi doi moc khi moi thu da gui xong; loi tam thoi thi lan sau ghep lai cac job nay
+            // (nguoi da nhan duoc loc qua SentJobStore). Khong doi o day: luong scheduler tra
+            // ngay, moc doi tren luong gui mail khi lo cuoi xong; lease lay truoc (ThreadLocal),
+            // fence chan lan chay cu doi moc sau lan chay moi
+            DigestWatermark watermark = next;
+            SchedulerLockService.Lease lease = SchedulerLockService.currentLease();
+            long fence = lease == null ? 0 : lease.fence();
+            CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).thenAccept(ignored -> {
+                boolean delivered = pending.stream().allMatch(CompletableFuture::join);
+                if (!delivered) {
+                    logger.warn("Some digests failed to send, keeping watermark before job {}", watermark.getJobId());
+                } else if (!this.subscriberDigestService.advanceWatermark(watermark, fence)) {
+                    logger.warn("Digest watermark not advanced to job {}: a newer run already moved it",
+                            watermark.getJobId());
+                }
+            }).exceptionally(e -> {
+                logger.error("Could not advance digest watermark to job {}", watermark.getJobId(), e);
+                return null;
+            });
+        }
+        return sent[0];
     }
 
-    //Danh dau job da gui
-    @SuppressWarnings("unchecked")
-        private void markJobsAsSent(String email, List<Job> jobs) {
-            String redisKey = "sent_jobs:" + email;
-            // Lay danh sach job da gui
-            Set<Long> sentJobIds = (Set<Long>) redisTemplate.opsForValue().get(redisKey);
-            // Neu cache null thi tao moi
-            if (sentJobIds == null) {
-                sentJobIds = new HashSet<>();
+    private int sendDigestBatch(List<SubscriberDigestService.Digest<String>> batch,
+            List<CompletableFuture<Boolean>> pending) {
+        Map<String, List<Long>> candidates = new LinkedHashMap<>();
+        for (SubscriberDigestService.Digest<String> digest : batch) {
+            candidates.put(digest.getEmail(), digest.getJobIds());
+        }
+        // Lọc ra các công việc mới chưa gửi (một pipeline cho cả lô)
+        Map<String, List<Long>> fresh = this.sentJobStore.filterNew(candidates);
+
+        Map<String, CompletableFuture<Void>> deliveries = new LinkedHashMap<>();
+        for (SubscriberDigestService.Digest<String> digest : batch) {
+            List<Long> newJobIds = fresh.get(digest.getEmail());
+            if (newJobIds == null) {
+                continue;
             }
-            // Them job vao moi vao danh sach
-            for (Job job : jobs) {
-                sentJobIds.add(job.getId());
+            Set<Long> newIds = new HashSet<>(newJobIds);
+            List<String> cards = new ArrayList<>();
+            for (int i = 0; i < digest.getJobIds().size(); i++) {
+                if (newIds.contains(digest.getJobIds().get(i))) {
+                    cards.add(digest.getJobs().get(i));
+                }
             }
-            // Luu vao redis thoi han 30 ngay
-            redisTemplate.opsForValue().set(redisKey, sentJobIds, Duration.ofDays(30));
-        }
 
-    public int sendSubscribersEmailJobs() {
-        int sent = 0;
-        // Lấy danh sách tất cả subscribers
-        List<Subscriber> listSubs = this.subscriberRepository.findAll();
-        for (Subscriber sub : listSubs) {
-            // Lấy danh sách kỹ năng của subscriber
-            List<Skill> listSkills = sub.getSkills();
-            if (listSkills == null || listSkills.isEmpty()) continue;
-            // Tìm các công việc phù hợp với kỹ năng và đang active
-            List<Job> matchedJobs = this.jobRepository.findBySkillsInAndActiveTrue(listSkills);
-            // Lọc ra các công việc mới chưa gửi
-            List<Job> newJobs = filterNewJobs(sub.getEmail(), matchedJobs);
-
-            if (!newJobs.isEmpty()) {
-                // Chuyển đổi thông tin công việc sang định dạng email
-                List<ResEmailJob> arr = newJobs.stream()
-                        .map(this::convertJobToSendEmail)
-                        .collect(Collectors.toList());
-
-                this.emailService.sendEmailFromTemplateSync(
-                        sub.getEmail(),
-                        "Cơ hội việc làm hot đang chờ đón bạn, khám phá ngay",
-                        "job",
-                        sub.getName(),
-                        arr);
-                // Đánh dấu các công việc đã gửi
-                markJobsAsSent(sub.getEmail(), newJobs);
-                sent++;
-            }
+            deliveries.put(digest.getEmail(), this.emailService.sendEmailSync(
+                    digest.getEmail(),
+                    "Cơ hội việc làm hot đang chờ đón bạn, khám phá ngay",
+                    this.digestEmailRenderer.assemble(digest.getName(), cards),
+                    false,
+                    true));
         }
-        return sent;
+        // Chỉ đánh dấu đã gửi cho người nhận mà mail đã gửi thành công (một pipeline cho cả lô)
+        pending.add(CompletableFuture.allOf(deliveries.values().toArray(CompletableFuture[]::new)).handle((ok, e) -> {
+            Map<String, List<Long>> delivered = new LinkedHashMap<>();
+            boolean retryable = false;
+            for (Map.Entry<String, CompletableFuture<Void>> entry : deliveries.entrySet()) {
+                if (!entry.getValue().isCompletedExceptionally()) {
+                    delivered.put(entry.getKey(), fresh.get(entry.getKey()));
+                } else if (!isPermanentFailure(entry.getValue())) {
+                    retryable = true;
+                }
+            }
+            try {
+                if (!delivered.isEmpty()) {
+                    this.sentJobStore.markSent(delivered);
+                }
+            } catch (RuntimeException ex) {
+                logger.error("Could not mark {} digests as sent", delivered.size(), ex);
+            }
+            return !retryable;
+        }));
+        return deliveries.size();
     }
 
-
+    // dia chi sai thi gui lai cung khong duoc
+    private static boolean isPermanentFailure(CompletableFuture<Void> delivery) {
+        try {
+            delivery.join();
+            return false;
+        } catch (CompletionException e) {
+            return e.getCause() instanceof SendFailedException || e.getCause() instanceof AddressException;
+        }
+    }
 
     public Subscriber findByEmail(String email) {
         return this.subscriberRepository.findByEmail(email);
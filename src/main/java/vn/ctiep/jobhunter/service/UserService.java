@@ -1,6 +1,7 @@
 package vn.ctiep.jobhunter.service;
 
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
@@ -10,6 +11,8 @@ import vn.ctiep.jobhunter.domain.Company;
 import vn.ctiep.jobhunter.domain.Resume;
 import vn.ctiep.jobhunter.domain.Role;
 import vn.ctiep.jobhunter.domain.User;
+import vn.ctiep.jobhunter.domain.event.CompanyChangedEvent;
+import vn.ctiep.jobhunter.domain.event.UserChangedEvent;
 import vn.ctiep.jobhunter.domain.response.ResCreateUserDTO;
 import vn.ctiep.jobhunter.domain.response.ResUpdateUserDTO;
 import vn.ctiep.jobhunter.domain.response.ResUserDTO;
@@ -17,6 +20,8 @@ import vn.ctiep.jobhunter.domain.response.ResultPaginationDTO;
 import vn.ctiep.jobhunter.repository.CompanyRepository;
 import vn.ctiep.jobhunter.repository.ResumeRepository;
 import vn.ctiep.jobhunter.repository.UserRepository;
+import vn.ctiep.jobhunter.util.KeysetPaginationUtil;
+import vn.ctiep.jobhunter.util.error.IdInvalidException;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -28,13 +33,16 @@ public class UserService {
     private final RoleService roleService;
     private final ResumeRepository resumeRepository;
     private final CompanyRepository companyRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public UserService(UserRepository userRepository, CompanyService companyService, RoleService roleService, ResumeRepository resumeRepository, CompanyRepository companyRepository) {
+    public UserService(UserRepository userRepository, CompanyService companyService, RoleService roleService, ResumeRepository resumeRepository, CompanyRepository companyRepository,
+            ApplicationEventPublisher eventPublisher) {
         this.userRepository = userRepository;
         this.companyService = companyService;
         this.roleService = roleService;
         this.resumeRepository = resumeRepository;
         this.companyRepository = companyRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     public User handleCreateUser(User user) {
@@ -48,7 +56,9 @@ public class UserService {
             Role r = this.roleService.fetchById(user.getRole().getId());
             user.setRole(r != null ? r : null);
         }
-        return this.userRepository.save(user);
+        User saved = this.userRepository.save(user);
+        this.eventPublisher.publishEvent(StatsCounterService.userCreated());
+        return saved;
     }
 
     @Transactional
@@ -77,6 +87,7 @@ public class UserService {
                 if (otherHRs.isEmpty()) {
                     company.setActive(false);
                     companyRepository.save(company);
+                    this.eventPublisher.publishEvent(new CompanyChangedEvent(company.getId()));
                 }
             }
             
@@ -95,7 +106,12 @@ public class UserService {
         return this.userRepository.save(user);
     }
 
-    public ResultPaginationDTO fetchAllUser(Specification<User> spec, Pageable pageable) {
+    public ResultPaginationDTO fetchAllUser(Specification<User> spec, Pageable pageable, String cursor,
+            boolean withTotal) throws IdInvalidException {
+        if (cursor != null) {
+            return KeysetPaginationUtil.fetch(this.userRepository, spec, cursor, pageable, withTotal,
+                    UserRepository.LISTING_GRAPH, this::convertToResUserDTO);
+        }
         Page<User> pageUser = this.userRepository.findAll(spec, pageable);
         ResultPaginationDTO rs = new ResultPaginationDTO();
         ResultPaginationDTO.Meta mt = new ResultPaginationDTO.Meta();
@@ -142,6 +158,8 @@ public class UserService {
             }
             // update
             currentUser = this.userRepository.save(currentUser);
+            // role co the da doi: PermissionMatrixService bo role cache cua user
+            this.eventPublisher.publishEvent(new UserChangedEvent(currentUser.getId()));
         }
         return currentUser;
     }
@@ -219,17 +237,6 @@ public class UserService {
         return res;
     }
 
-    public void updateUserToken(String token, String email) {
-        User currentUser = this.handleGetUserByUsername(email);
-        if (currentUser != null) {
-            currentUser.setRefreshToken(token);
-            this.userRepository.save(currentUser);
-        }
-    }
-
-    public User getUserByRefreshTokenAndEmail(String token, String email) {
-        return this.userRepository.findByRefreshTokenAndEmail(token, email);
-    }
     @Transactional
     public User restoreUser(long id) {
         Optional<User> userOptional = this.userRepository.findByIdAndActiveFalse(id);
@@ -254,6 +261,7 @@ public class UserService {
                 if (otherHRs.isEmpty() && !company.isActive()) {
                     company.setActive(true);
                     companyRepository.save(company);
+                    this.eventPublisher.publishEvent(new CompanyChangedEvent(company.getId()));
                 }
             }
             
@@ -0,0 +1,209 @@
+package vn.ctiep.jobhunter.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import vn.ctiep.jobhunter.domain.response.ResultPaginationDTO;
+import vn.ctiep.jobhunter.util.error.IdInvalidException;
+
+/**
+ * Phan trang keyset (cursor) cho cac API danh sach.
+ *
+ * Cursor la chuoi base64 chua (truong sort, chieu sort, id, gia tri cuoi cung).
+ * Trang tiep theo duoc lay bang dieu kien WHERE (key, id) > (gia tri, id) thay vi
+ * OFFSET, va khong chay COUNT tru khi client yeu cau withTotal=true.
+ */
+public final class KeysetPaginationUtil {
+    private static final String SEPARATOR = "|";
+
+    private KeysetPaginationUtil() {
+    }
+
+    public static <T> ResultPaginationDTO fetch(JpaSpecificationExecutor<T> repository, Specification<T> spec,
+            String cursor, Pageable pageable, boolean withTotal, Function<T, ?> mapper) throws IdInvalidException {
+        return fetch(repository, spec, cursor, pageable, withTotal, List.of(), mapper);
+    }
+
+    /**
+     * fetchGraph: cac association mapper can (vd. "job.company"), nap cung truy van
+     * trang qua fetch graph; findBy khong dung @EntityGraph khai bao tren findAll.
+     */
+    public static <T> ResultPaginationDTO fetch(JpaSpecificationExecutor<T> repository, Specification<T> spec,
+            String cursor, Pageable pageable, boolean withTotal, List<String> fetchGraph, Function<T, ?> mapper)
+            throws IdInvalidException {
+        Cursor current = (cursor == null || cursor.isBlank())
+                ? Cursor.first(pageable.getSort())
+                : Cursor.decode(cursor);
+        int size = pageable.getPageSize();
+
+        Specification<T> seekSpec = Specification.where(spec).and(current.toSpecification());
+        Sort sort = current.toSort();
+        // lay du 1 ban ghi de biet con trang sau hay khong
+        List<T> rows;
+        try {
+            rows = repository.findBy(seekSpec, q -> (fetchGraph.isEmpty() ? q : q.project(fetchGraph))
+                    .sortBy(sort).limit(size + 1).all());
+        } catch (IllegalArgumentException | InvalidDataAccessApiUsageException e) {
+            throw new IdInvalidException("Cursor không hợp lệ");
+        }
+
+        boolean hasNext = rows.size() > size;
+        List<T> content = hasNext ? rows.subList(0, size) : rows;
+
+        ResultPaginationDTO rs = new ResultPaginationDTO();
+        ResultPaginationDTO.Meta mt = new ResultPaginationDTO.Meta();
+
+        mt.setPageSize(size);
+        if (hasNext) {
+            mt.setNextCursor(current.next(content.get(content.size() - 1)).encode());
+        }
+        if (withTotal) {
+            long total = repository.count(spec);
+            mt.setTotal(total);
+            mt.setPages((int) ((total + size - 1) / size));
+        }
+
+        List<Object> result = new ArrayList<>(content.size());
+        for (T item : content) {
+            result.add(mapper.apply(item));
+        }
+
+        rs.setMeta(mt);
+        rs.setResult(result);
+        return rs;
+    }
+
+    // dung chung dinh dang cursor cho cac truy van keyset viet tay
+    public record Cursor(String property, Sort.Direction direction, Long lastId, String lastValue) {
+
+        static Cursor first(Sort sort) {
+            Sort.Order order = sort.stream().findFirst().orElse(Sort.Order.asc("id"));
+            return new Cursor(order.getProperty(), order.getDirection(), null, null);
+        }
+
+        public static Cursor decode(String cursor) throws IdInvalidException {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                String[] parts = raw.split("\\" + SEPARATOR, 4);
+                if (parts.length < 3) {
+                    throw new IdInvalidException("Cursor không hợp lệ");
+                }
+                return new Cursor(parts[0], Sort.Direction.fromString(parts[1]), Long.valueOf(parts[2]),
+                        parts.length == 4 ? parts[3] : null);
+            } catch (IllegalArgumentException e) {
+                throw new IdInvalidException("Cursor không hợp lệ");
+            }
+        }
+
+        public String encode() {
+            String raw = property + SEPARATOR + direction.name() + SEPARATOR + lastId
+                    + (lastValue == null ? "" : SEPARATOR + lastValue);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        boolean byIdOnly() {
+            return property.equals("id");
+        }
+
+        Sort toSort() {
+            Sort byId = Sort.by(direction, "id");
+            return byIdOnly() ? byId : Sort.by(direction, property).and(byId);
+        }
+
+        Cursor next(Object last) {
+            BeanWrapper wrapper = PropertyAccessorFactory.forBeanPropertyAccess(last);
+            Long id = ((Number) wrapper.getPropertyValue("id")).longValue();
+            String value = null;
+            if (!byIdOnly()) {
+                Object v = wrapper.getPropertyValue(property);
+                value = v == null ? null : v instanceof Enum<?> e ? e.name() : v.toString();
+            }
+            return new Cursor(property, direction, id, value);
+        }
+
+        <T> Specification<T> toSpecification() {
+            return (root, query, cb) -> {
+                if (lastId == null) {
+                    return null;
+                }
+                boolean asc = direction.isAscending();
+                Path<Long> idPath = root.get("id");
+                Predicate afterId = asc ? cb.greaterThan(idPath, lastId) : cb.lessThan(idPath, lastId);
+                if (byIdOnly()) {
+                    return afterId;
+                }
+                Path<Comparable<Object>> key = path(root, property);
+                // MySQL xep NULL truoc nhat khi ASC va sau cung khi DESC
+                if (lastValue == null) {
+                    Predicate sameNull = cb.and(cb.isNull(key), afterId);
+                    return asc ? cb.or(sameNull, cb.isNotNull(key)) : sameNull;
+                }
+                Comparable<Object> value = parse(key.getJavaType(), lastValue);
+                Predicate after = asc ? cb.greaterThan(key, value) : cb.lessThan(key, value);
+                Predicate seek = cb.or(after, cb.and(cb.equal(key, value), afterId));
+                return asc ? seek : cb.or(seek, cb.isNull(key));
+            };
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> Path<Comparable<Object>> path(Root<T> root, String property) {
+            Path<?> path = root;
+            for (String part : property.split("\\.")) {
+                path = path.get(part);
+            }
+            return (Path<Comparable<Object>>) path;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static Comparable<Object> parse(Class<?> type, String value) {
+            Object parsed;
+            try {
+                parsed = parseValue(type, value);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Cursor không hợp lệ", e);
+            }
+            return (Comparable<Object>) parsed;
+        }
+
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        private static Object parseValue(Class<?> type, String value) {
+            Object parsed;
+            if (type == String.class) {
+                parsed = value;
+            } else if (type == Long.class || type == long.class) {
+                parsed = Long.valueOf(value);
+            } else if (type == Integer.class || type == int.class) {
+                parsed = Integer.valueOf(value);
+            } else if (type == Double.class || type == double.class) {
+                parsed = Double.valueOf(value);
+            } else if (type == Boolean.class || type == boolean.class) {
+                parsed = Boolean.valueOf(value);
+            } else if (type == Instant.class) {
+                parsed = Instant.parse(value);
+            } else if (type == LocalDate.class) {
+                parsed = LocalDate.parse(value);
+            } else if (type.isEnum()) {
+                parsed = Enum.valueOf((Class<Enum>) type, value);
+            } else {
+                throw new IllegalArgumentException("Không hỗ trợ cursor theo kiểu " + type.getSimpleName());
+            }
+            return parsed;
+        }
+    }
+}
@@ -18,38 +18,29 @@ import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtClaimsSet;
 import org.springframework.security.oauth2.jwt.JwtEncoder;
 import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
-import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 import org.springframework.stereotype.Service;
 
-import javax.crypto.SecretKey;
-import javax.crypto.spec.SecretKeySpec;
-import com.nimbusds.jose.util.Base64;
 
 import vn.ctiep.jobhunter.domain.response.ResLoginDTO;
+import vn.ctiep.jobhunter.service.JwtVerificationService;
 
 @Service
 public class SecurityUtil {
     private final JwtEncoder jwtEncoder;
+    private final JwtVerificationService jwtVerificationService;
     private static final ObjectMapper objectMapper = new ObjectMapper();
-    public SecurityUtil(JwtEncoder jwtEncoder) {
+    public SecurityUtil(JwtEncoder jwtEncoder, JwtVerificationService jwtVerificationService) {
         this.jwtEncoder = jwtEncoder;
+        this.jwtVerificationService = jwtVerificationService;
     }
 
     public static final MacAlgorithm JWT_ALGORITHM = MacAlgorithm.HS512;
-    @Value("${ctiep.jwt.base64-secret}")
-    private String jwtKey;
-
     @Value("${ctiep.jwt.access-token-validity-in-seconds}")
     private long accessTokenExpiration;
 
     @Value("${ctiep.jwt.refresh-token-validity-in-seconds}")
     private long refreshTokenExpiration;
 
-    private SecretKey getSecretKey() {
-        byte[] keyBytes = Base64.from(jwtKey).decode();
-        return new SecretKeySpec(keyBytes, 0, keyBytes.length, JWT_ALGORITHM.getName());
-    }
-
     public String createAccessToken(String email, ResLoginDTO dto) {
         ResLoginDTO.UserInsideToken userToken = new ResLoginDTO.UserInsideToken();
         userToken.setId(dto.getUser().getId());
@@ -77,7 +68,8 @@ public class SecurityUtil {
         JwsHeader jwsHeader = JwsHeader.with(JWT_ALGORITHM).build(); 
         return this.jwtEncoder.encode(JwtEncoderParameters.from(jwsHeader, claims)).getTokenValue(); 
     }
-    public String createRefreshToken(String email, ResLoginDTO dto) {
+    // sessionId: id phien trong RefreshSessionService, ghi vao claim jti
+    public String createRefreshToken(String email, ResLoginDTO dto, String sessionId) {
         ResLoginDTO.UserInsideToken userToken = new ResLoginDTO.UserInsideToken();
         userToken.setId(dto.getUser().getId());
         userToken.setEmail(dto.getUser().getEmail());
@@ -91,6 +83,7 @@ public class SecurityUtil {
             .issuedAt(now) 
             .expiresAt(validity) 
             .subject(email) 
+            .id(sessionId) 
             .claim("user", userToken) 
             .build(); 
  
@@ -99,10 +92,8 @@ public class SecurityUtil {
     }
     
     public Jwt checkValidRefreshToken(String token){
-        NimbusJwtDecoder jwtDecoder = NimbusJwtDecoder.withSecretKey(
-                getSecretKey()).macAlgorithm(SecurityUtil.JWT_ALGORITHM).build();
                 try {
-                     return jwtDecoder.decode(token);
+                     return this.jwtVerificationService.decode(token);
                 } catch (Exception e) {
                     System.out.println(">>> Refresh Token error: " + e.getMessage());
                     throw e;
@@ -135,10 +126,8 @@ public class SecurityUtil {
         Authentication authentication = securityContext.getAuthentication();
 
         if (authentication != null && authentication.getPrincipal() instanceof Jwt jwt) {
-            Object userClaim = jwt.getClaims().get("user");
-            ObjectMapper mapper = new ObjectMapper();
-            ResLoginDTO.UserInsideToken user = mapper.convertValue(userClaim, ResLoginDTO.UserInsideToken.class);
-            return Optional.of(user);
+            // token qua JwtVerificationService: claim "user" da duoc chuyen doi san
+            return Optional.ofNullable(JwtVerificationService.userOf(jwt));
         }
 
         return Optional.empty();
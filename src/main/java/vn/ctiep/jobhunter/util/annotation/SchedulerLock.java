@@ -0,0 +1,24 @@
+package vn.ctiep.jobhunter.util.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * Chi mot node trong cluster chay method tai mot thoi diem (xem SchedulerLockService).
+ * Node khong lay duoc lock bo qua lan chay do va method tra ve null, nen chi dung cho
+ * method void hoac tra ve object.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface SchedulerLock {
+    // ten lock, duy nhat trong cluster
+    String name();
+
+    // lock tu het han sau thoi gian nay neu node chet giua chung
+    long leaseSeconds() default 600;
+
+    // giu lock it nhat chung nay ke ca khi chay xong som, de node lech dong ho khong chay lai
+    long minLeaseSeconds() default 0;
+
+    // > 1: chia viec thanh n phan, moi phan mot lock rieng, cac node chia nhau chay
+    int partitions() default 1;
+}
@@ -0,0 +1,7 @@
+package vn.ctiep.jobhunter.util.constant;
+
+public enum EmailOutboxStatusEnum {
+    PENDING,    // Chờ gửi (hoặc chờ gửi lại)
+    SENT,       // Đã gửi
+    FAILED      // Hết số lần thử
+}
@@ -0,0 +1,7 @@
+package vn.ctiep.jobhunter.util.constant;
+
+public enum JobAlertModeEnum {
+    DIGEST,     // Chỉ email tổng hợp lúc 9h
+    EMAIL,      // Email ngay khi job được duyệt; job đã gửi ngay không lặp lại trong email tổng hợp
+    WEBSOCKET   // Thông báo trong app ngay khi job được duyệt, vẫn nhận email tổng hợp
+}
@@ -1,8 +1,10 @@
 package vn.ctiep.jobhunter.util.error;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
@@ -89,4 +91,40 @@ public class GlobalException {
         res.setError("Forbidden");
         return ResponseEntity.status(HttpStatus.FORBIDDEN).body(res);
     }
-}
\ No newline at end of file
+
+    @ExceptionHandler(value = {
+            TooManyRequestsException.class,
+    })
+    public ResponseEntity<RestResponse<Object>> handleTooManyRequestsException(TooManyRequestsException ex) {
+        RestResponse<Object> res = new RestResponse<Object>();
+        res.setStatusCode(HttpStatus.TOO_MANY_REQUESTS.value());
+        res.setMessage(ex.getMessage());
+        res.setError("Too Many Requests");
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(res);
+    }
+
+    @ExceptionHandler(value = {
+            ServiceBusyException.class,
+    })
+    public ResponseEntity<RestResponse<Object>> handleServiceBusyException(Exception ex) {
+        RestResponse<Object> res = new RestResponse<Object>();
+        res.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE.value());
+        res.setMessage(ex.getMessage());
+        res.setError("Service Unavailable");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(res);
+    }
+
+    // DaoAuthenticationProvider boc loi cua PasswordEncoder khi user khong ton tai
+    @ExceptionHandler(InternalAuthenticationServiceException.class)
+    public ResponseEntity<RestResponse<Object>> handleInternalAuthenticationException(
+            InternalAuthenticationServiceException ex) {
+        if (ex.getCause() instanceof ServiceBusyException busy) {
+            return this.handleServiceBusyException(busy);
+        }
+        return this.handleAllException(ex);
+    }
+}
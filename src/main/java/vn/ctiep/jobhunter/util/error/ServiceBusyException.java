@@ -0,0 +1,9 @@
+package vn.ctiep.jobhunter.util.error;
+
+// Unchecked: nem ra tu ben trong PasswordEncoder khi hang doi bam mat khau day
+public class ServiceBusyException extends RuntimeException {
+
+    public ServiceBusyException(String message) {
+        super(message);
+    }
+}
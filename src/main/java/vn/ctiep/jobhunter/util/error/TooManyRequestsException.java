@@ -0,0 +1,16 @@
+package vn.ctiep.jobhunter.util.error;
+
+public class TooManyRequestsException extends Exception {
+
+    // so giay client nen cho truoc khi thu lai (header Retry-After)
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,196 @@
+package vn.ctiep.jobhunter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import vn.ctiep.jobhunter.domain.Company;
+import vn.ctiep.jobhunter.domain.Job;
+import vn.ctiep.jobhunter.domain.Resume;
+import vn.ctiep.jobhunter.domain.Role;
+import vn.ctiep.jobhunter.domain.Skill;
+import vn.ctiep.jobhunter.domain.User;
+import vn.ctiep.jobhunter.domain.response.ResultPaginationDTO;
+import vn.ctiep.jobhunter.service.JobService;
+import vn.ctiep.jobhunter.service.ResumeService;
+import vn.ctiep.jobhunter.service.UserService;
+
+/**
+ * Dem so cau SQL cua cac API danh sach: so cau lenh phai la hang so, khong tang
+ * theo kich thuoc trang (khong co N+1). Du lieu mau tao trong transaction cua test
+ * (rollback sau moi test), moi dong tro toi company/job/user rieng de association
+ * lazy nap rieng tung dong se lam so cau lenh tang theo trang.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+class ListingQueryCountTests {
+
+    // select trang + count + toi da vai lan nap theo lo cho association
+    private static final long MAX_STATEMENTS = 5;
+
+    private static final int ROWS = 60;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JobService jobService;
+
+    @Autowired
+    private ResumeService resumeService;
+
+    @Autowired
+    private UserService userService;
+
+    private Statistics statistics;
+
+    private final List<Long> jobIds = new ArrayList<>();
+    private final List<Long> resumeIds = new ArrayList<>();
+    private final List<Long> userIds = new ArrayList<>();
+
+    @FunctionalInterface
+    interface Listing {
+        ResultPaginationDTO fetch(int size) throws Exception;
+    }
+
+    @BeforeEach
+    void setUp() {
+        this.statistics = this.entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        this.seed();
+    }
+
+    private void seed() {
+        String tag = "qc-" + System.nanoTime();
+
+        Role role = new Role();
+        role.setName(tag);
+        role.setActive(true);
+        this.entityManager.persist(role);
+
+        List<Skill> skills = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Skill skill = new Skill();
+            skill.setName(tag + "-skill-" + i);
+            this.entityManager.persist(skill);
+            skills.add(skill);
+        }
+
+        for (int i = 0; i < ROWS; i++) {
+            Company company = new Company();
+            company.setName(tag + "-company-" + i);
+            company.setTaxCode(tag + "-" + i);
+            this.entityManager.persist(company);
+
+            Job job = new Job();
+            job.setName(tag + "-job-" + i);
+            job.setLocation("HANOI");
+            job.setQuantity(1);
+            job.setCompany(company);
+            job.setSkills(new ArrayList<>(List.of(skills.get(i % 3), skills.get((i + 1) % 3))));
+            this.entityManager.persist(job);
+            this.jobIds.add(job.getId());
+
+            User user = new User();
+            user.setName(tag + "-user-" + i);
+            user.setEmail(tag + "-" + i + "@test.local");
+            user.setPassword("x");
+            user.setCompany(company);
+            user.setRole(role);
+            this.entityManager.persist(user);
+            this.userIds.add(user.getId());
+
+            Resume resume = new Resume();
+            resume.setEmail(user.getEmail());
+            resume.setUrl(tag + "-" + i + ".pdf");
+            resume.setUser(user);
+            resume.setJob(job);
+            this.entityManager.persist(resume);
+            this.resumeIds.add(resume.getId());
+        }
+        this.entityManager.flush();
+    }
+
+    // chay truy van va serialize ket qua nhu khi tra ve cho client
+    private long countStatements(Listing listing, int size) throws Exception {
+        this.entityManager.clear();
+        this.statistics.clear();
+        ResultPaginationDTO rs = listing.fetch(size);
+        this.objectMapper.writeValueAsString(rs);
+        // trang phai co du lieu mau, neu khong so cau lenh khong noi len gi
+        assertThat((List<?>) rs.getResult()).hasSize(Math.min(size, ROWS));
+        return this.statistics.getPrepareStatementCount();
+    }
+
+    private void assertBounded(Listing listing) throws Exception {
+        long small = countStatements(listing, 1);
+        long large = countStatements(listing, 50);
+        assertThat(small).isLessThanOrEqualTo(MAX_STATEMENTS);
+        assertThat(large).isLessThanOrEqualTo(MAX_STATEMENTS);
+    }
+
+    private static <T> Specification<T> idIn(List<Long> ids) {
+        return (root, query, cb) -> root.get("id").in(ids);
+    }
+
+    private static PageRequest page(int size) {
+        return PageRequest.of(0, size, Sort.by("id"));
+    }
+
+    @Test
+    void fetchAllJobsUsesConstantStatements() throws Exception {
+        Specification<Job> spec = idIn(this.jobIds);
+        assertBounded(size -> this.jobService.fetchAll(spec, page(size), null, false));
+    }
+
+    @Test
+    void fetchAllJobsByCursorUsesConstantStatements() throws Exception {
+        Specification<Job> spec = idIn(this.jobIds);
+        assertBounded(size -> this.jobService.fetchAll(spec, page(size), "", false));
+    }
+
+    @Test
+    void fetchAllResumesUsesConstantStatements() throws Exception {
+        Specification<Resume> spec = idIn(this.resumeIds);
+        assertBounded(size -> this.resumeService.fetchAllResume(spec, page(size), null, false));
+    }
+
+    @Test
+    void fetchAllResumesByCursorUsesConstantStatements() throws Exception {
+        Specification<Resume> spec = idIn(this.resumeIds);
+        assertBounded(size -> this.resumeService.fetchAllResume(spec, page(size), "", false));
+    }
+
+    @Test
+    void fetchAllUsersUsesConstantStatements() throws Exception {
+        Specification<User> spec = idIn(this.userIds);
+        assertBounded(size -> this.userService.fetchAllUser(spec, page(size), null, false));
+    }
+
+    @Test
+    void fetchAllUsersByCursorUsesConstantStatements() throws Exception {
+        Specification<User> spec = idIn(this.userIds);
+        assertBounded(size -> this.userService.fetchAllUser(spec, page(size), "", false));
+    }
+}